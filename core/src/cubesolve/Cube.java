@@ -1,17 +1,16 @@
 package cubesolve;
 
-import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.graphics.*;
 import com.badlogic.gdx.graphics.g3d.*;
-import com.badlogic.gdx.graphics.g3d.attributes.ColorAttribute;
-import com.badlogic.gdx.graphics.g3d.attributes.TextureAttribute;
 import com.badlogic.gdx.graphics.g3d.utils.MeshBuilder;
 import com.badlogic.gdx.graphics.g3d.utils.ModelBuilder;
+import com.badlogic.gdx.math.Matrix4;
 import com.badlogic.gdx.utils.Array;
 import com.badlogic.gdx.utils.Disposable;
 import com.badlogic.gdx.utils.Pool;
 import cubesolve.PlainCubelet.CubeletSide;
 
+import java.util.List;
 import java.util.Random;
 
 /**
@@ -19,15 +18,24 @@ import java.util.Random;
  */
 public class Cube implements Disposable {
 
+    private static final PlainCubelet.CubeletColor[] COLOR_VALUES = PlainCubelet.CubeletColor.values();
+    private static final CubeletSide[] SIDE_VALUES = CubeletSide.values();
+
     private final int size;
+    private final CubeLayout layout;
     private final Cubelet[][][] cubelets;
     private Mesh mesh;
     private Model model;
     private ModelInstance modelInstance;
+    private final Matrix4 transform = new Matrix4();
+    private long revision;
     private ModelBuilder modelBuilder;
     private boolean disableAutoRerender;
-    private Texture cubeletTexture;
     private Material cubeMaterial;
+    private boolean assetsAcquired;
+    private boolean textured;
+    private final Array<CubeListener> listeners = new Array<CubeListener>();
+    private boolean muteListeners;
 
     /**
      * Creates a Rubik's cube with the default configuration
@@ -36,13 +44,15 @@ public class Cube implements Disposable {
      */
     public Cube(int size) {
         this.size = size;
+        this.layout = CubeLayout.of(size);
         this.cubelets = new Cubelet[size][size][size];
 
         modelBuilder = new ModelBuilder();
 
-        cubeletTexture = new Texture(Gdx.files.internal("cubelet.png"));
-        cubeMaterial = new Material(ColorAttribute.createSpecular(Color.WHITE),
-                TextureAttribute.createDiffuse(cubeletTexture));
+        // Every cube renders with the same material from the shared assets
+        cubeMaterial = CubeAssets.acquire();
+        assetsAcquired = true;
+        textured = CubeAssets.isLoaded();
 
         fillWithDefault();
         rerenderCube();
@@ -68,9 +78,30 @@ public class Cube implements Disposable {
      * @param environment Environment to render with
      */
     public void render(ModelBatch batch, Environment environment) {
+        // Model instances copy their materials, so pick up the texture once it has loaded
+        if(!textured && CubeAssets.isLoaded()) {
+            textured = true;
+            modelInstance = new ModelInstance(model, transform);
+        }
         batch.render(modelInstance, environment);
     }
 
+    /**
+     * Get the transform the cube is rendered with, which can be changed to move it
+     *
+     * @return Transform of the cube
+     */
+    public Matrix4 getTransform() {
+        return transform;
+    }
+
+    /**
+     * @return Number that changes every time the cube is rerendered
+     */
+    public long getRevision() {
+        return revision;
+    }
+
     /**
      * @return Number of rows in the cube
      */
@@ -78,6 +109,78 @@ public class Cube implements Disposable {
         return this.size;
     }
 
+    /**
+     * Add a listener to be notified of everything done to the cube
+     *
+     * @param listener Listener to add
+     */
+    public void addListener(CubeListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Stop notifying a listener
+     *
+     * @param listener Listener to remove
+     */
+    public void removeListener(CubeListener listener) {
+        listeners.removeValue(listener, true);
+    }
+
+    /**
+     * @return Facelet indexing used by the packed state of the cube
+     */
+    public CubeLayout getLayout() {
+        return layout;
+    }
+
+    /**
+     * Copy out the state of the cube
+     *
+     * @param state Packed state to write to, see {@link CubeLayout}
+     */
+    public void getState(byte[] state) {
+        for(int x = 0; x < size; x++) {
+            for(int y = 0; y < size; y++) {
+                for(int z = 0; z < size; z++) {
+                    Cubelet cblt = cubelets[x][y][z];
+                    if(cblt == null)continue;
+                    int base = layout.getCubelet(x, y, z) * CubeLayout.SIDES;
+                    for(int side = 0; side < CubeLayout.SIDES; side++) {
+                        state[base + side] = (byte) cblt.getColor(SIDE_VALUES[side]).ordinal();
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Overwrite the state of the cube
+     *
+     * @param state Packed state to copy, see {@link CubeLayout}
+     */
+    public void setState(byte[] state) {
+        for(int x = 0; x < size; x++) {
+            for(int y = 0; y < size; y++) {
+                for(int z = 0; z < size; z++) {
+                    Cubelet cblt = cubelets[x][y][z];
+                    if(cblt == null)continue;
+                    int base = layout.getCubelet(x, y, z) * CubeLayout.SIDES;
+                    for(int side = 0; side < CubeLayout.SIDES; side++) {
+                        cblt.setColor(SIDE_VALUES[side], COLOR_VALUES[state[base + side]]);
+                    }
+                }
+            }
+        }
+
+        rerenderCube();
+
+        if(!muteListeners) {
+            for(int i = 0; i < listeners.size; i++)
+                listeners.get(i).stateSet(this);
+        }
+    }
+
     /**
      * Calculates whether to cube is solved
      *
@@ -154,6 +257,7 @@ public class Cube implements Disposable {
 
         if(!disableAutoRerender)
             rerenderCube();
+        notifyRotated(Move.Axis.COLUMN, row);
     }
 
     /**
@@ -171,6 +275,7 @@ public class Cube implements Disposable {
 
         if(!disableAutoRerender)
             rerenderCube();
+        notifyRotated(Move.Axis.ROW, row);
     }
 
     /**
@@ -186,6 +291,51 @@ public class Cube implements Disposable {
             }
         }
 
+        if(!disableAutoRerender)
+            rerenderCube();
+        notifyRotated(Move.Axis.FACE, row);
+    }
+
+    /**
+     * Apply a move to the cube, rerendering only once
+     *
+     * @param move Move to apply
+     */
+    public void apply(Move move) {
+        boolean wasDisabled = disableAutoRerender;
+        disableAutoRerender = true;
+        for(int turn = 0; turn < move.getTurns(); turn++) {
+            switch(move.getAxis()) {
+                case COLUMN:
+                    rotateColumn(move.getSlice());
+                    break;
+                case ROW:
+                    rotateRow(move.getSlice());
+                    break;
+                case FACE:
+                    rotateFace(move.getSlice());
+                    break;
+            }
+        }
+        disableAutoRerender = wasDisabled;
+
+        if(!disableAutoRerender)
+            rerenderCube();
+    }
+
+    /**
+     * Apply moves to the cube in order, rerendering only once
+     *
+     * @param moves Moves to apply
+     */
+    public void apply(List<Move> moves) {
+        boolean wasDisabled = disableAutoRerender;
+        disableAutoRerender = true;
+        for(Move move : moves) {
+            apply(move);
+        }
+        disableAutoRerender = wasDisabled;
+
         if(!disableAutoRerender)
             rerenderCube();
     }
@@ -196,6 +346,11 @@ public class Cube implements Disposable {
     public void reset() {
         fillWithDefault();
         rerenderCube();
+
+        if(!muteListeners) {
+            for(int i = 0; i < listeners.size; i++)
+                listeners.get(i).reset(this);
+        }
     }
 
     /**
@@ -203,31 +358,37 @@ public class Cube implements Disposable {
      */
     public void shuffle(Random rng) {
         disableAutoRerender = true;
-        for(int iter = 0; iter < 100; iter++) {
-            for(int row = 0; row < size; row++) {
-                for(int times = 0; times < rng.nextInt(3); times++) {
-                    rotateRow(row);
-                }
-            }
-            for(int col = 0; col < size; col++) {
-                for(int times = 0; times < rng.nextInt(3); times++) {
-                    rotateColumn(col);
-                }
-            }
-            for(int face = 0; face < size; face++) {
-                for(int times = 0; times < rng.nextInt(3); times++) {
-                    rotateFace(face);
-                }
-            }
+        for(Move move : MoveSimplifier.simplify(Move.shuffleSequence(size, rng)).getMoves()) {
+            apply(move);
         }
         disableAutoRerender = false;
         rerenderCube();
     }
 
+    /**
+     * Shuffle the cube from a seed, notifying listeners of the seed instead of every turn
+     *
+     * @param seed Seed for the random number generator picking the turns
+     */
+    public void shuffle(long seed) {
+        boolean wasMuted = muteListeners;
+        muteListeners = true;
+        shuffle(new Random(seed));
+        muteListeners = wasMuted;
+
+        if(!muteListeners) {
+            for(int i = 0; i < listeners.size; i++)
+                listeners.get(i).shuffled(this, seed);
+        }
+    }
+
     @Override
     public void dispose() {
         this.mesh.dispose();
-        this.cubeletTexture.dispose();
+        if(assetsAcquired) {
+            assetsAcquired = false;
+            CubeAssets.release();
+        }
     }
 
     /**
@@ -256,7 +417,15 @@ public class Cube implements Disposable {
         this.mesh = builder.end();
         this.modelBuilder.part("cube", mesh, GL20.GL_TRIANGLES, cubeMaterial);
         this.model = modelBuilder.end();
-        this.modelInstance = new ModelInstance(model);
+        this.modelInstance = new ModelInstance(model, transform);
+        this.revision++;
+    }
+
+    private void notifyRotated(Move.Axis axis, int slice) {
+        if(muteListeners)
+            return;
+        for(int i = 0; i < listeners.size; i++)
+            listeners.get(i).rotated(this, axis, slice);
     }
 
     private void fillWithDefault() {
@@ -268,12 +437,12 @@ public class Cube implements Disposable {
                             && (j > 0 && j < cubelets.length - 1)
                             && (k > 0 && k < cubelets.length - 1))continue;
                     cubelets[i][j][k] = new PlainCubelet(
-                            PlainCubelet.CubeletColor.BLUE,
-                            PlainCubelet.CubeletColor.RED,
-                            PlainCubelet.CubeletColor.ORANGE,
-                            PlainCubelet.CubeletColor.YELLOW,
-                            PlainCubelet.CubeletColor.GREEN,
-                            PlainCubelet.CubeletColor.WHITE);
+                            CubeLayout.getDefaultColor(CubeletSide.TOP),
+                            CubeLayout.getDefaultColor(CubeletSide.BOTTOM),
+                            CubeLayout.getDefaultColor(CubeletSide.WEST),
+                            CubeLayout.getDefaultColor(CubeletSide.EAST),
+                            CubeLayout.getDefaultColor(CubeletSide.NORTH),
+                            CubeLayout.getDefaultColor(CubeletSide.SOUTH));
                     cubelets[i][j][k].setMask(j == cubelets.length-1, j == 0, i == 0, i == cubelets.length-1,  k == cubelets.length - 1, k == 0);
                 }
             }
@@ -0,0 +1,294 @@
+package cubesolve;
+
+import com.badlogic.gdx.ApplicationListener;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.*;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.BitmapFontCache;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g3d.*;
+import com.badlogic.gdx.graphics.g3d.attributes.ColorAttribute;
+import com.badlogic.gdx.graphics.g3d.environment.DirectionalLight;
+import com.badlogic.gdx.graphics.g3d.utils.CameraInputController;
+import com.badlogic.gdx.graphics.g3d.utils.MeshPartBuilder;
+import com.badlogic.gdx.graphics.g3d.utils.ModelBuilder;
+import com.badlogic.gdx.math.Vector3;
+import com.badlogic.gdx.utils.Array;
+import cubesolve.PlainCubelet.CubeletColor;
+import cubesolve.PlainCubelet.CubeletSide;
+
+/**
+ * Scene showing a grid of many cubes at once.
+ * Every cube shares the material from {@link CubeAssets}, cubes outside of the camera frustum are skipped,
+ * and distant cubes are drawn as a single colored quad per side from a model shared by all of them.
+ */
+public class CubeArena implements ApplicationListener {
+
+    private static final CubeletSide[] SIDE_VALUES = CubeletSide.values();
+    private static final CubeletColor[] COLOR_VALUES = CubeletColor.values();
+
+    private final int cubeCount;
+    private final int cubeSize;
+    private final float lodDistance;
+    private final Array<Entry> entries = new Array<Entry>();
+    private final Vector3 toCamera = new Vector3();
+
+    private Environment environment;
+    private PerspectiveCamera cam;
+    private OrthographicCamera hudCam;
+    private CameraInputController camController;
+    private ModelBatch modelBatch;
+    private SpriteBatch hudBatch;
+    private BitmapFont font;
+    private BitmapFontCache statsCache;
+    private Model lodModel;
+    private float radius;
+    private long lastStatsUpdate;
+
+    /**
+     * Create an arena of cubes
+     *
+     * @param cubeCount Number of cubes to show
+     * @param cubeSize Number of rows in each cube
+     */
+    public CubeArena(int cubeCount, int cubeSize) {
+        this.cubeCount = cubeCount;
+        this.cubeSize = cubeSize;
+        // Past this distance a cubelet is only a few pixels across
+        this.lodDistance = cubeSize * 3f * 15f;
+    }
+
+    @Override
+    public void create() {
+        environment = new Environment();
+        environment.set(new ColorAttribute(ColorAttribute.AmbientLight, 1, 1, 1, 0.8f));
+        environment.add(new DirectionalLight().set(0.8f, 0.8f, 0.8f, 1, 1, 1));
+        environment.add(new DirectionalLight().set(0.8f, 0.8f, 0.8f, -1, -1, -1));
+
+        modelBatch = new ModelBatch();
+        hudBatch = new SpriteBatch();
+        font = new BitmapFont();
+        statsCache = new BitmapFontCache(font, true);
+
+        lodModel = buildLodModel();
+
+        // Half of the diagonal of a cube
+        float extent = cubeSize * 3f;
+        radius = extent * 0.5f * (float) Math.sqrt(3);
+
+        int columns = (int) Math.ceil(Math.sqrt(cubeCount));
+        float spacing = extent * 1.5f;
+        for(int i = 0; i < cubeCount; i++) {
+            Entry entry = new Entry(new Cube(cubeSize));
+            entry.position.set((i % columns - (columns - 1) / 2f) * spacing, 0,
+                    (i / columns - (columns - 1) / 2f) * spacing);
+            entry.cube.getTransform().setToTranslation(entry.position);
+            entry.cube.shuffle(i);
+            entries.add(entry);
+        }
+
+        cam = new PerspectiveCamera(67, Gdx.graphics.getWidth(), Gdx.graphics.getHeight());
+        cam.position.set(columns * spacing * 0.5f, columns * spacing * 0.3f, columns * spacing * 0.5f);
+        cam.lookAt(0, 0, 0);
+        cam.near = 1f;
+        cam.far = columns * spacing * 3f;
+        cam.update();
+
+        hudCam = new OrthographicCamera(Gdx.graphics.getWidth(), Gdx.graphics.getHeight());
+
+        camController = new CameraInputController(cam);
+        Gdx.input.setInputProcessor(camController);
+
+        Gdx.graphics.setContinuousRendering(true);
+    }
+
+    @Override
+    public void render() {
+        // Cubes that are culled or simplified don't render, so the scene keeps the loading going
+        CubeAssets.update();
+        camController.update();
+
+        Gdx.gl.glClearColor(0.2f, 0.2f, 0.2f, 1);
+        Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT | GL20.GL_DEPTH_BUFFER_BIT);
+
+        int visible = 0, simplified = 0;
+        float lodDistance2 = lodDistance * lodDistance;
+        modelBatch.begin(cam);
+        for(int i = 0; i < entries.size; i++) {
+            Entry entry = entries.get(i);
+            if(!cam.frustum.sphereInFrustum(entry.position, radius))
+                continue;
+            visible++;
+
+            if(cam.position.dst2(entry.position) < lodDistance2) {
+                entry.cube.render(modelBatch, environment);
+            } else {
+                simplified++;
+                entry.updateLod();
+                toCamera.set(cam.position).sub(entry.position);
+                for(int side = 0; side < SIDE_VALUES.length; side++) {
+                    // Only the sides facing the camera can be seen
+                    if(facesCamera(SIDE_VALUES[side], toCamera))
+                        modelBatch.render(entry.lod[side], environment);
+                }
+            }
+        }
+        modelBatch.end();
+
+        if(System.currentTimeMillis() - lastStatsUpdate > 1000l) {
+            statsCache.setText("FPS: " + Gdx.graphics.getFramesPerSecond()
+                    + "  Cubes: " + visible + "/" + entries.size + " visible, " + simplified + " simplified",
+                    4, Gdx.graphics.getHeight() - 4);
+            lastStatsUpdate = System.currentTimeMillis();
+        }
+        hudBatch.setProjectionMatrix(hudCam.combined);
+        hudBatch.begin();
+        statsCache.draw(hudBatch);
+        hudBatch.end();
+    }
+
+    @Override
+    public void resize(int width, int height) {
+        cam.viewportWidth = width;
+        cam.viewportHeight = height;
+        cam.update();
+
+        hudCam.setToOrtho(false, width, height);
+        hudCam.update();
+        lastStatsUpdate = 0;
+    }
+
+    @Override
+    public void pause() {
+    }
+
+    @Override
+    public void resume() {
+    }
+
+    @Override
+    public void dispose() {
+        for(int i = 0; i < entries.size; i++) {
+            entries.get(i).cube.dispose();
+        }
+        entries.clear();
+        lodModel.dispose();
+        modelBatch.dispose();
+        hudBatch.dispose();
+        font.dispose();
+    }
+
+    private static boolean facesCamera(CubeletSide side, Vector3 toCamera) {
+        switch(side) {
+            case TOP:
+                return toCamera.y > 0;
+            case BOTTOM:
+                return toCamera.y < 0;
+            case WEST:
+                return toCamera.x < 0;
+            case EAST:
+                return toCamera.x > 0;
+            case NORTH:
+                return toCamera.z > 0;
+            default:
+                return toCamera.z < 0;
+        }
+    }
+
+    private static String lodNode(CubeletSide side, CubeletColor color) {
+        return side.name() + "_" + color.name();
+    }
+
+    /**
+     * Build a model with a node for every side of a cube in every color, each being a single quad
+     */
+    private Model buildLodModel() {
+        float h = cubeSize * 3f / 2f;
+        ModelBuilder builder = new ModelBuilder();
+        builder.begin();
+        for(CubeletColor color : COLOR_VALUES) {
+            Material material = new Material(ColorAttribute.createDiffuse(color.getGdxColor()));
+            for(CubeletSide side : SIDE_VALUES) {
+                builder.node().id = lodNode(side, color);
+                MeshPartBuilder part = builder.part(lodNode(side, color), GL20.GL_TRIANGLES,
+                        VertexAttributes.Usage.Position | VertexAttributes.Usage.Normal, material);
+                switch(side) {
+                    case TOP:
+                        part.rect(-h, h, h, h, h, h, h, h, -h, -h, h, -h, 0, 1, 0);
+                        break;
+                    case BOTTOM:
+                        part.rect(-h, -h, -h, h, -h, -h, h, -h, h, -h, -h, h, 0, -1, 0);
+                        break;
+                    case SOUTH:
+                        part.rect(-h, h, -h, h, h, -h, h, -h, -h, -h, -h, -h, 0, 0, -1);
+                        break;
+                    case NORTH:
+                        part.rect(-h, -h, h, h, -h, h, h, h, h, -h, h, h, 0, 0, 1);
+                        break;
+                    case WEST:
+                        part.rect(-h, -h, h, -h, h, h, -h, h, -h, -h, -h, -h, -1, 0, 0);
+                        break;
+                    case EAST:
+                        part.rect(h, -h, -h, h, h, -h, h, h, h, h, -h, h, 1, 0, 0);
+                        break;
+                }
+            }
+        }
+        return builder.end();
+    }
+
+    /**
+     * Cube in the arena along with its simplified rendering
+     */
+    private class Entry {
+
+        private final Cube cube;
+        private final Vector3 position = new Vector3();
+        private final ModelInstance[] lod = new ModelInstance[SIDE_VALUES.length];
+        private final CubeletColor[] lodColors = new CubeletColor[SIDE_VALUES.length];
+        private long lodRevision = -1;
+
+        Entry(Cube cube) {
+            this.cube = cube;
+        }
+
+        /**
+         * Pick the quads showing the center color of each side, if the cube changed since they were picked
+         */
+        void updateLod() {
+            if(lodRevision == cube.getRevision())
+                return;
+            lodRevision = cube.getRevision();
+
+            int last = cubeSize - 1, mid = cubeSize / 2;
+            for(int side = 0; side < SIDE_VALUES.length; side++) {
+                CubeletColor color;
+                switch(SIDE_VALUES[side]) {
+                    case TOP:
+                        color = cube.getCubelet(mid, last, mid).getColor(CubeletSide.TOP);
+                        break;
+                    case BOTTOM:
+                        color = cube.getCubelet(mid, 0, mid).getColor(CubeletSide.BOTTOM);
+                        break;
+                    case WEST:
+                        color = cube.getCubelet(0, mid, mid).getColor(CubeletSide.WEST);
+                        break;
+                    case EAST:
+                        color = cube.getCubelet(last, mid, mid).getColor(CubeletSide.EAST);
+                        break;
+                    case NORTH:
+                        color = cube.getCubelet(mid, mid, last).getColor(CubeletSide.NORTH);
+                        break;
+                    default:
+                        color = cube.getCubelet(mid, mid, 0).getColor(CubeletSide.SOUTH);
+                        break;
+                }
+                if(color != lodColors[side]) {
+                    lodColors[side] = color;
+                    lod[side] = new ModelInstance(lodModel, lodNode(SIDE_VALUES[side], color));
+                    lod[side].transform.setToTranslation(position);
+                }
+            }
+        }
+    }
+}
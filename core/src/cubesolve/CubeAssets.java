@@ -0,0 +1,119 @@
+package cubesolve;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.assets.AssetManager;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g3d.Material;
+import com.badlogic.gdx.graphics.g3d.attributes.ColorAttribute;
+import com.badlogic.gdx.graphics.g3d.attributes.TextureAttribute;
+
+/**
+ * Assets shared by every cube, loaded once and disposed when the last cube using them is.
+ *
+ * The cubelet texture is loaded in the background by an {@link AssetManager}, moved along by the scene
+ * calling {@link #update()} every frame. Until it is ready the shared material has no texture,
+ * so cubes are drawn in their flat vertex colors.
+ * When there is no texture file, the texture is generated instead.
+ */
+public final class CubeAssets {
+
+    /** Internal path of the cubelet texture */
+    public static final String CUBELET_TEXTURE = "cubelet.png";
+    /** Width of the generated cubelet texture in pixels */
+    private static final int GENERATED_SIZE = 64;
+
+    private static AssetManager manager;
+    private static Texture generatedTexture;
+    private static Material material;
+    private static boolean loaded;
+    private static int references;
+
+    private CubeAssets() {
+    }
+
+    /**
+     * Get the shared cubelet material, starting to load it if no cube is using it yet.
+     * Every call must be matched by a call to {@link #release()}.
+     *
+     * @return Material to render cubelets with, which gets its texture once {@link #update()} returns true
+     */
+    public static Material acquire() {
+        if(references++ == 0) {
+            material = new Material(ColorAttribute.createSpecular(Color.WHITE));
+            if(Gdx.files.internal(CUBELET_TEXTURE).exists()) {
+                manager = new AssetManager();
+                manager.load(CUBELET_TEXTURE, Texture.class);
+                loaded = false;
+            } else {
+                generatedTexture = generateTexture();
+                material.set(TextureAttribute.createDiffuse(generatedTexture));
+                loaded = true;
+            }
+        }
+        return material;
+    }
+
+    /**
+     * Continue loading for a little while without blocking.
+     * Must be called on the rendering thread once per frame by the scene, whether or not any cube is drawn.
+     *
+     * @return Whether the shared material has its texture
+     */
+    public static boolean update() {
+        if(loaded || references == 0)
+            return loaded;
+        if(manager.update()) {
+            material.set(TextureAttribute.createDiffuse(manager.get(CUBELET_TEXTURE, Texture.class)));
+            loaded = true;
+        }
+        return loaded;
+    }
+
+    /**
+     * @return Whether the shared material has its texture
+     */
+    public static boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Stop using the shared material, disposing of it once nothing else is using it
+     */
+    public static void release() {
+        if(references == 0)
+            throw new IllegalStateException("Cube assets released more times than acquired");
+        if(--references > 0)
+            return;
+
+        if(manager != null) {
+            manager.dispose();
+            manager = null;
+        }
+        if(generatedTexture != null) {
+            generatedTexture.dispose();
+            generatedTexture = null;
+        }
+        material = null;
+        loaded = false;
+    }
+
+    /**
+     * Generate a white sticker that darkens towards its edges, like the one in the texture file
+     */
+    private static Texture generateTexture() {
+        Pixmap pixmap = new Pixmap(GENERATED_SIZE, GENERATED_SIZE, Pixmap.Format.RGBA8888);
+        pixmap.setColor(Color.WHITE);
+        pixmap.fill();
+        int border = GENERATED_SIZE / 6;
+        for(int i = 0; i < border; i++) {
+            float shade = 0.35f + 0.65f * i / border;
+            pixmap.setColor(shade, shade, shade, 1);
+            pixmap.drawRectangle(i, i, GENERATED_SIZE - 2 * i, GENERATED_SIZE - 2 * i);
+        }
+        Texture texture = new Texture(pixmap);
+        pixmap.dispose();
+        return texture;
+    }
+}
@@ -0,0 +1,149 @@
+package cubesolve;
+
+import cubesolve.PlainCubelet.CubeletSide;
+
+import java.util.Arrays;
+
+/**
+ * Many cube states of the same size, stored with one array per facelet holding that facelet for every state.
+ * Every move is applied to all of the states at once.
+ */
+public class CubeBatch {
+
+    private static final CubeletSide[] SIDE_VALUES = CubeletSide.values();
+
+    private final CubeLayout layout;
+    private final int capacity;
+    private final byte[][] facelets;
+    private final byte[] mismatch;
+
+    /**
+     * Create a batch where every state is solved
+     *
+     * @param size     Number of rows in each cube
+     * @param capacity Number of states in the batch
+     */
+    public CubeBatch(int size, int capacity) {
+        this.layout = CubeLayout.of(size);
+        this.capacity = capacity;
+        this.facelets = new byte[layout.getStateSize()][capacity];
+        this.mismatch = new byte[capacity];
+        reset();
+    }
+
+    /**
+     * @return Layout of the cubes in the batch
+     */
+    public CubeLayout getLayout() {
+        return layout;
+    }
+
+    /**
+     * @return Number of states in the batch
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Reset every state to a solved cube
+     */
+    public void reset() {
+        for(int f = 0; f < facelets.length; f++) {
+            Arrays.fill(facelets[f], (byte) CubeLayout.getDefaultColor(SIDE_VALUES[f % CubeLayout.SIDES]).ordinal());
+        }
+    }
+
+    /**
+     * Overwrite one of the states
+     *
+     * @param index Index of the state in the batch
+     * @param state Packed state to copy, see {@link CubeLayout}
+     */
+    public void setState(int index, byte[] state) {
+        for(int f = 0; f < facelets.length; f++) {
+            facelets[f][index] = state[f];
+        }
+    }
+
+    /**
+     * Copy out one of the states
+     *
+     * @param index Index of the state in the batch
+     * @param state Packed state to write to, see {@link CubeLayout}
+     */
+    public void getState(int index, byte[] state) {
+        for(int f = 0; f < facelets.length; f++) {
+            state[f] = facelets[f][index];
+        }
+    }
+
+    /**
+     * Apply a move to every state in the batch.
+     * Since every state turns the same way, moving the facelet colors is done by moving
+     * whole facelet arrays, which costs the same no matter how many states there are.
+     *
+     * @param move Move to apply
+     */
+    public void apply(Move move) {
+        Move.Axis axis = move.getAxis();
+        int s0 = axis.getCycleSide(0).ordinal();
+        int s1 = axis.getCycleSide(1).ordinal();
+        int s2 = axis.getCycleSide(2).ordinal();
+        int s3 = axis.getCycleSide(3).ordinal();
+        int[] cubelets = layout.getSliceCubelets(axis, move.getSlice());
+
+        int turns = move.getTurns();
+        for(int i = 0; i < cubelets.length; i++) {
+            int base = cubelets[i] * CubeLayout.SIDES;
+            byte[] c0 = facelets[base + s0], c1 = facelets[base + s1];
+            byte[] c2 = facelets[base + s2], c3 = facelets[base + s3];
+            switch(turns) {
+                case 1:
+                    facelets[base + s0] = c3; facelets[base + s1] = c0;
+                    facelets[base + s2] = c1; facelets[base + s3] = c2;
+                    break;
+                case 2:
+                    facelets[base + s0] = c2; facelets[base + s1] = c3;
+                    facelets[base + s2] = c0; facelets[base + s3] = c1;
+                    break;
+                default:
+                    facelets[base + s0] = c1; facelets[base + s1] = c2;
+                    facelets[base + s2] = c3; facelets[base + s3] = c0;
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Calculate which of the states are solved
+     *
+     * @param solved Bitmask to write to with a bit per state, or null to create a new one
+     * @return Bitmask where bit (i % 64) of element (i / 64) is set if state i is solved
+     */
+    public long[] isSolved(long[] solved) {
+        int words = (capacity + 63) >>> 6;
+        if(solved == null || solved.length < words)
+            solved = new long[words];
+
+        // OR together the differences from the first facelet of each side, which leaves zero for solved states
+        Arrays.fill(mismatch, (byte) 0);
+        for(CubeletSide side : SIDE_VALUES) {
+            int[] face = layout.getFaceFacelets(side);
+            byte[] first = facelets[face[0]];
+            for(int i = 1; i < face.length; i++) {
+                byte[] other = facelets[face[i]];
+                for(int k = 0; k < capacity; k++) {
+                    mismatch[k] |= (byte) (first[k] ^ other[k]);
+                }
+            }
+        }
+
+        Arrays.fill(solved, 0, words, 0L);
+        for(int k = 0; k < capacity; k++) {
+            if(mismatch[k] == 0)
+                solved[k >>> 6] |= 1L << k;
+        }
+        return solved;
+    }
+}
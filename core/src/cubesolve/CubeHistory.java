@@ -0,0 +1,293 @@
+package cubesolve;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Undo and redo history of a cube.
+ * Turns are undone by turning back, and the state is snapshotted every few steps
+ * so that undoing a reset or shuffle, or jumping to any step, only has to replay from the closest snapshot.
+ * The oldest steps are forgotten once the history grows past its limit on steps,
+ * or once its snapshots take more memory than their limit.
+ */
+public class CubeHistory implements CubeListener {
+
+    /** Steps between snapshots when no interval is given */
+    public static final int DEFAULT_SNAPSHOT_INTERVAL = 256;
+    /** Steps remembered when no limit is given */
+    public static final int DEFAULT_MAX_STEPS = 1 << 22;
+    /** Bytes of snapshots remembered when no limit is given */
+    public static final long DEFAULT_MAX_SNAPSHOT_BYTES = 64L << 20;
+
+    // Steps that aren't turns can't be turned back, and always have a snapshot of the state after them
+    private static final int SNAPSHOT_STEP = -1;
+    private static final Move.Axis[] AXIS_VALUES = Move.Axis.values();
+
+    private final Cube cube;
+    private final int snapshotInterval;
+    private final int maxSteps;
+    private final int maxSnapshots;
+    private final TreeMap<Long, byte[]> snapshots = new TreeMap<Long, byte[]>();
+    private final CubeState scratch;
+    private int[] steps = new int[1024];
+    private long firstStep;
+    private long lastStep;
+    private long step;
+    private boolean applying;
+    private boolean paused;
+
+    /**
+     * Start remembering what is done to a cube with the default snapshot interval and limits
+     *
+     * @param cube Cube to remember the steps of
+     */
+    public CubeHistory(Cube cube) {
+        this(cube, DEFAULT_SNAPSHOT_INTERVAL, DEFAULT_MAX_STEPS, DEFAULT_MAX_SNAPSHOT_BYTES);
+    }
+
+    /**
+     * Start remembering what is done to a cube
+     *
+     * @param cube             Cube to remember the steps of
+     * @param snapshotInterval Number of steps between snapshots of the state
+     * @param maxSteps         Number of steps to remember before forgetting the oldest ones
+     * @param maxSnapshotBytes Bytes of snapshots to keep before forgetting the oldest steps, so the memory
+     *                         used doesn't grow with the size of the cube
+     */
+    public CubeHistory(Cube cube, int snapshotInterval, int maxSteps, long maxSnapshotBytes) {
+        if(snapshotInterval < 1)
+            throw new IllegalArgumentException("Snapshot interval must be positive: " + snapshotInterval);
+        if(maxSteps < snapshotInterval)
+            throw new IllegalArgumentException("History must hold at least one snapshot interval: " + maxSteps);
+        this.cube = cube;
+        this.snapshotInterval = snapshotInterval;
+        this.maxSteps = maxSteps;
+        long byteLimit = maxSnapshotBytes / cube.getLayout().getStateSize();
+        this.maxSnapshots = (int) Math.max(1, Math.min(maxSteps / snapshotInterval + 1, byteLimit));
+        this.scratch = new CubeState(cube.getSize());
+
+        takeSnapshot(0);
+        cube.addListener(this);
+    }
+
+    /**
+     * @return Number of steps done since the history started, minus the ones undone
+     */
+    public long getStep() {
+        return step;
+    }
+
+    /**
+     * @return Oldest step that can still be returned to
+     */
+    public long getFirstStep() {
+        return firstStep;
+    }
+
+    /**
+     * @return Newest step that can be redone to
+     */
+    public long getLastStep() {
+        return lastStep;
+    }
+
+    /**
+     * @return Whether there is a step to undo
+     */
+    public boolean canUndo() {
+        return !paused && step > firstStep;
+    }
+
+    /**
+     * @return Whether there is an undone step to redo
+     */
+    public boolean canRedo() {
+        return !paused && step < lastStep;
+    }
+
+    /**
+     * Undo the last step done to the cube
+     *
+     * @return Whether there was a step to undo
+     */
+    public boolean undo() {
+        if(!canUndo())
+            return false;
+
+        int code = getCode(step);
+        if(code == SNAPSHOT_STEP) {
+            jumpTo(step - 1);
+        } else {
+            applying = true;
+            cube.apply(decode(code).inverse());
+            applying = false;
+            step--;
+        }
+        return true;
+    }
+
+    /**
+     * Redo the last undone step
+     *
+     * @return Whether there was a step to redo
+     */
+    public boolean redo() {
+        if(!canRedo())
+            return false;
+
+        int code = getCode(step + 1);
+        if(code == SNAPSHOT_STEP) {
+            jumpTo(step + 1);
+        } else {
+            applying = true;
+            cube.apply(decode(code));
+            applying = false;
+            step++;
+        }
+        return true;
+    }
+
+    /**
+     * Jump straight to the state after a step, updating the cube only once
+     *
+     * @param target Step to jump to, clamped to the remembered steps
+     */
+    public void jumpTo(long target) {
+        if(paused)
+            return;
+        target = Math.max(firstStep, Math.min(target, lastStep));
+        if(target == step)
+            return;
+
+        // There are no snapshot steps between the closest snapshot and the target, only turns
+        Map.Entry<Long, byte[]> snapshot = snapshots.floorEntry(target);
+        scratch.set(snapshot.getValue());
+        for(long i = snapshot.getKey() + 1; i <= target; i++) {
+            int code = getCode(i);
+            scratch.rotate(AXIS_VALUES[code >>> 24], code & 0xFFFFFF);
+        }
+
+        applying = true;
+        cube.setState(scratch.getFacelets());
+        applying = false;
+        step = target;
+    }
+
+    /**
+     * Forget every step, keeping the current state as the start
+     */
+    public void clear() {
+        snapshots.clear();
+        firstStep = lastStep = step = 0;
+        takeSnapshot(0);
+    }
+
+    /**
+     * Stop or start remembering what is done to the cube, such as while replaying a move log.
+     * Nothing can be undone while paused, and starting again forgets every step,
+     * since the cube may have changed in ways that weren't remembered.
+     *
+     * @param paused Whether to stop remembering
+     */
+    public void setPaused(boolean paused) {
+        if(this.paused && !paused)
+            clear();
+        this.paused = paused;
+    }
+
+    /**
+     * @return Whether the history is paused
+     */
+    public boolean isPaused() {
+        return paused;
+    }
+
+    /**
+     * Stop remembering what is done to the cube
+     */
+    public void dispose() {
+        cube.removeListener(this);
+    }
+
+    @Override
+    public void rotated(Cube cube, Move.Axis axis, int slice) {
+        if(applying || paused)
+            return;
+        push(axis.ordinal() << 24 | slice);
+        if(step % snapshotInterval == 0)
+            takeSnapshot(step);
+    }
+
+    @Override
+    public void shuffled(Cube cube, long seed) {
+        pushSnapshotStep();
+    }
+
+    @Override
+    public void reset(Cube cube) {
+        pushSnapshotStep();
+    }
+
+    @Override
+    public void stateSet(Cube cube) {
+        pushSnapshotStep();
+    }
+
+    private void pushSnapshotStep() {
+        if(applying || paused)
+            return;
+        push(SNAPSHOT_STEP);
+        takeSnapshot(step);
+    }
+
+    private void push(int code) {
+        // A new step replaces everything that was undone
+        if(step < lastStep)
+            snapshots.tailMap(step, false).clear();
+
+        step++;
+        lastStep = step;
+        if(lastStep - firstStep > steps.length && steps.length < maxSteps)
+            growSteps();
+        steps[(int) (step % steps.length)] = code;
+
+        while(lastStep - firstStep > maxSteps || snapshots.size() > maxSnapshots) {
+            if(!forgetOldest())
+                break;
+        }
+    }
+
+    /**
+     * Forget every step up to the second oldest snapshot, so there is always a snapshot at the first step
+     */
+    private boolean forgetOldest() {
+        Long next = snapshots.higherKey(firstStep);
+        if(next == null || next > step)
+            return false;
+        snapshots.remove(firstStep);
+        firstStep = next;
+        return true;
+    }
+
+    private void growSteps() {
+        int[] grown = new int[Math.min(steps.length * 2, maxSteps)];
+        for(long i = firstStep + 1; i < lastStep; i++) {
+            grown[(int) (i % grown.length)] = steps[(int) (i % steps.length)];
+        }
+        steps = grown;
+    }
+
+    private int getCode(long i) {
+        return steps[(int) (i % steps.length)];
+    }
+
+    private Move decode(int code) {
+        return new Move(AXIS_VALUES[code >>> 24], code & 0xFFFFFF);
+    }
+
+    private void takeSnapshot(long i) {
+        byte[] state = new byte[cube.getLayout().getStateSize()];
+        cube.getState(state);
+        snapshots.put(i, state);
+    }
+}
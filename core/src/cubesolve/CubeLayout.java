@@ -0,0 +1,221 @@
+package cubesolve;
+
+import cubesolve.PlainCubelet.CubeletColor;
+import cubesolve.PlainCubelet.CubeletSide;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Indexing of the facelets of a cube of a certain size.
+ * A packed cube state is one byte per facelet holding the ordinal of its {@link CubeletColor}.
+ * Cubelets are numbered in x, y, z order skipping the internal ones, and each cubelet
+ * has one facelet per {@link CubeletSide} in ordinal order, visible or not.
+ */
+public final class CubeLayout {
+
+    /** Number of facelets on a cubelet */
+    public static final int SIDES = 6;
+
+    /** Largest size whose layout is kept for reuse, larger ones take too much memory to keep around */
+    private static final int MAX_CACHED_SIZE = 36;
+
+    private static final CubeletSide[] SIDE_VALUES = CubeletSide.values();
+    private static final Map<Integer, CubeLayout> layouts = new HashMap<Integer, CubeLayout>();
+
+    private final int size;
+    private final int[][][] cubeletIndices;
+    private final int cubeletCount;
+    private final int[][][] sliceCubelets;
+    private final int[][] faceFacelets;
+
+    /**
+     * Get the layout of a cube, reusing it if it was already created.
+     * Layouts of cubes larger than can be rendered are created every time.
+     *
+     * @param size Number of rows in the cube
+     * @return Layout of a cube of the size
+     */
+    public static CubeLayout of(int size) {
+        if(size < 1)
+            throw new IllegalArgumentException("Cube size must be positive: " + size);
+        if(size > MAX_CACHED_SIZE)
+            return new CubeLayout(size);
+        synchronized(layouts) {
+            CubeLayout layout = layouts.get(size);
+            if(layout == null) {
+                layout = new CubeLayout(size);
+                layouts.put(size, layout);
+            }
+            return layout;
+        }
+    }
+
+    /**
+     * Get the color a side of every cubelet has on a reset cube
+     *
+     * @param side Side of the cubelet
+     * @return Color of the side
+     */
+    public static CubeletColor getDefaultColor(CubeletSide side) {
+        switch(side) {
+            case TOP:
+                return CubeletColor.BLUE;
+            case BOTTOM:
+                return CubeletColor.RED;
+            case WEST:
+                return CubeletColor.ORANGE;
+            case EAST:
+                return CubeletColor.YELLOW;
+            case NORTH:
+                return CubeletColor.GREEN;
+            case SOUTH:
+                return CubeletColor.WHITE;
+            default:
+                return null;
+        }
+    }
+
+    private CubeLayout(int size) {
+        this.size = size;
+        this.cubeletIndices = new int[size][size][size];
+
+        int count = 0;
+        for(int x = 0; x < size; x++) {
+            for(int y = 0; y < size; y++) {
+                for(int z = 0; z < size; z++) {
+                    cubeletIndices[x][y][z] = isInternal(x, y, z) ? -1 : count++;
+                }
+            }
+        }
+        this.cubeletCount = count;
+
+        // Cubelets turned by each slice
+        Move.Axis[] axes = Move.Axis.values();
+        sliceCubelets = new int[axes.length][size][];
+        for(Move.Axis axis : axes) {
+            for(int slice = 0; slice < size; slice++) {
+                int[] cubelets = new int[size * size];
+                int n = 0;
+                for(int a = 0; a < size; a++) {
+                    for(int b = 0; b < size; b++) {
+                        int index;
+                        switch(axis) {
+                            case COLUMN:
+                                index = cubeletIndices[slice][a][b];
+                                break;
+                            case ROW:
+                                index = cubeletIndices[a][slice][b];
+                                break;
+                            default:
+                                index = cubeletIndices[a][b][slice];
+                                break;
+                        }
+                        if(index >= 0)
+                            cubelets[n++] = index;
+                    }
+                }
+                int[] trimmed = new int[n];
+                System.arraycopy(cubelets, 0, trimmed, 0, n);
+                sliceCubelets[axis.ordinal()][slice] = trimmed;
+            }
+        }
+
+        // Facelets visible on each side of the cube, the same ones Cube.isSolved looks at
+        faceFacelets = new int[SIDES][size * size];
+        for(int a = 0; a < size; a++) {
+            for(int b = 0; b < size; b++) {
+                int i = a * size + b;
+                faceFacelets[CubeletSide.TOP.ordinal()][i] = getFacelet(a, size - 1, b, CubeletSide.TOP);
+                faceFacelets[CubeletSide.BOTTOM.ordinal()][i] = getFacelet(a, 0, b, CubeletSide.BOTTOM);
+                faceFacelets[CubeletSide.WEST.ordinal()][i] = getFacelet(0, a, b, CubeletSide.WEST);
+                faceFacelets[CubeletSide.EAST.ordinal()][i] = getFacelet(size - 1, a, b, CubeletSide.EAST);
+                faceFacelets[CubeletSide.NORTH.ordinal()][i] = getFacelet(a, b, size - 1, CubeletSide.NORTH);
+                faceFacelets[CubeletSide.SOUTH.ordinal()][i] = getFacelet(a, b, 0, CubeletSide.SOUTH);
+            }
+        }
+    }
+
+    /**
+     * @return Number of rows in the cube
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * @return Number of cubelets in the cube, not counting the internal ones
+     */
+    public int getCubeletCount() {
+        return cubeletCount;
+    }
+
+    /**
+     * @return Number of bytes in a packed state
+     */
+    public int getStateSize() {
+        return cubeletCount * SIDES;
+    }
+
+    /**
+     * Whether a position is inside the cube and has no cubelet
+     */
+    public boolean isInternal(int x, int y, int z) {
+        return (x > 0 && x < size - 1)
+                && (y > 0 && y < size - 1)
+                && (z > 0 && z < size - 1);
+    }
+
+    /**
+     * Get the index of the cubelet at the specified position
+     *
+     * @return Index of the cubelet, or -1 if the position is internal
+     */
+    public int getCubelet(int x, int y, int z) {
+        return cubeletIndices[x][y][z];
+    }
+
+    /**
+     * Get the index in a packed state of a side of the cubelet at the specified position
+     *
+     * @return Index of the facelet, or -1 if the position is internal
+     */
+    public int getFacelet(int x, int y, int z, CubeletSide side) {
+        int cubelet = cubeletIndices[x][y][z];
+        return cubelet < 0 ? -1 : cubelet * SIDES + side.ordinal();
+    }
+
+    /**
+     * Get the cubelets turned by rotating a slice. The returned array must not be modified.
+     *
+     * @param axis  Axis the slice is rotated around
+     * @param slice Index of the slice along the axis
+     * @return Indices of the cubelets in the slice
+     */
+    public int[] getSliceCubelets(Move.Axis axis, int slice) {
+        return sliceCubelets[axis.ordinal()][slice];
+    }
+
+    /**
+     * Get the facelets visible on a side of the cube. The returned array must not be modified.
+     *
+     * @param side Side of the cube
+     * @return Indices of the facelets in a packed state
+     */
+    public int[] getFaceFacelets(CubeletSide side) {
+        return faceFacelets[side.ordinal()];
+    }
+
+    /**
+     * Fill a packed state with the state of a reset cube
+     *
+     * @param state Packed state to write to
+     */
+    public void fillSolved(byte[] state) {
+        for(int cubelet = 0; cubelet < cubeletCount; cubelet++) {
+            for(int side = 0; side < SIDES; side++) {
+                state[cubelet * SIDES + side] = (byte) getDefaultColor(SIDE_VALUES[side]).ordinal();
+            }
+        }
+    }
+}
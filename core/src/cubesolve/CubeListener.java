@@ -0,0 +1,39 @@
+package cubesolve;
+
+/**
+ * Listener notified of everything done to a {@link Cube}
+ */
+public interface CubeListener {
+
+    /**
+     * Called after a slice of the cube was turned counter-clockwise once
+     *
+     * @param cube  Cube that was turned
+     * @param axis  Axis the slice was rotated around
+     * @param slice Index of the slice along the axis
+     */
+    void rotated(Cube cube, Move.Axis axis, int slice);
+
+    /**
+     * Called after the cube was shuffled from a seed.
+     * The turns done by the shuffle are not reported separately.
+     *
+     * @param cube Cube that was shuffled
+     * @param seed Seed the turns were generated from, see {@link Move#shuffleSequence(int, java.util.Random)}
+     */
+    void shuffled(Cube cube, long seed);
+
+    /**
+     * Called after the cube was reset to its default state
+     *
+     * @param cube Cube that was reset
+     */
+    void reset(Cube cube);
+
+    /**
+     * Called after the whole state of the cube was overwritten
+     *
+     * @param cube Cube whose state was set
+     */
+    void stateSet(Cube cube);
+}
@@ -0,0 +1,207 @@
+package cubesolve;
+
+import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.math.Vector3;
+import com.badlogic.gdx.math.collision.Ray;
+import cubesolve.PlainCubelet.CubeletSide;
+
+/**
+ * Picks the facelet under a ray and turns drags across a side of the cube into moves.
+ * Picking intersects the ray with the planes of the six sides of the cube and works out the
+ * cubelet from where it hits, so it takes the same time no matter the size of the cube.
+ */
+public class CubePicker {
+
+    /** Width of a cubelet in gl units, as rendered by {@link Cube} */
+    private static final float CUBELET_WIDTH = 3f;
+    /** Distance to drag across a side before it turns a slice */
+    private static final float DRAG_THRESHOLD = CUBELET_WIDTH / 2f;
+
+    private final Ray localRay = new Ray(new Vector3(), new Vector3());
+    private final Matrix4 inverse = new Matrix4();
+    private final Vector3 start = new Vector3();
+    private final Vector3 current = new Vector3();
+    private final int[] cubelet = new int[3];
+    private CubeletSide side;
+    private boolean picking;
+
+    /**
+     * Pick the facelet under a ray, starting a drag if one was hit
+     *
+     * @param cube Cube to pick on
+     * @param ray  Ray in world coordinates, such as from {@link com.badlogic.gdx.graphics.Camera#getPickRay(float, float)}
+     * @return Whether the ray hit the cube from the outside
+     */
+    public boolean pick(Cube cube, Ray ray) {
+        toLocal(cube, ray);
+        float half = cube.getSize() * CUBELET_WIDTH / 2f;
+
+        // Find the side the ray enters the cube through, the one with the latest entry along the ray
+        float near = Float.NEGATIVE_INFINITY, far = Float.POSITIVE_INFINITY;
+        int nearAxis = -1;
+        boolean nearPositive = false;
+        for(int axis = 0; axis < 3; axis++) {
+            float origin = component(localRay.origin, axis);
+            float direction = component(localRay.direction, axis);
+            if(direction == 0) {
+                if(origin < -half || origin > half)
+                    return picking = false;
+                continue;
+            }
+            float toMin = (-half - origin) / direction;
+            float toMax = (half - origin) / direction;
+            float enter = Math.min(toMin, toMax);
+            if(enter > near) {
+                near = enter;
+                nearAxis = axis;
+                nearPositive = direction < 0;
+            }
+            far = Math.min(far, Math.max(toMin, toMax));
+        }
+        // Missed, or started inside the cube
+        if(nearAxis < 0 || near > far || near < 0)
+            return picking = false;
+
+        side = sideOf(nearAxis, nearPositive);
+        for(int axis = 0; axis < 3; axis++) {
+            if(axis == nearAxis) {
+                cubelet[axis] = nearPositive ? cube.getSize() - 1 : 0;
+            } else {
+                float hit = component(localRay.origin, axis) + near * component(localRay.direction, axis);
+                int index = (int) Math.floor((hit + half) / CUBELET_WIDTH);
+                cubelet[axis] = Math.max(0, Math.min(cube.getSize() - 1, index));
+            }
+        }
+        pointAt(start, near);
+        return picking = true;
+    }
+
+    /**
+     * Continue a drag started by {@link #pick(Cube, Ray)}.
+     * Once the drag has gone far enough across the picked side, the slice it pushes is returned
+     * and the drag ends, so every drag turns at most one slice.
+     *
+     * @param cube Cube being picked on
+     * @param ray  Ray in world coordinates under the pointer
+     * @return Move the drag makes, or null if there is none yet
+     */
+    public Move drag(Cube cube, Ray ray) {
+        if(!picking)
+            return null;
+        toLocal(cube, ray);
+
+        // Follow the pointer across the plane of the picked side, even past its edge
+        int sideAxis = axisOf(side);
+        float direction = component(localRay.direction, sideAxis);
+        if(direction == 0)
+            return null;
+        float plane = component(start, sideAxis);
+        float t = (plane - component(localRay.origin, sideAxis)) / direction;
+        if(t < 0)
+            return null;
+        pointAt(current, t);
+        current.sub(start);
+
+        // Only the strongest direction across the side counts
+        int dragAxis = -1;
+        float dragLength = DRAG_THRESHOLD;
+        for(int axis = 0; axis < 3; axis++) {
+            if(axis != sideAxis && Math.abs(component(current, axis)) > dragLength) {
+                dragAxis = axis;
+                dragLength = Math.abs(component(current, axis));
+            }
+        }
+        if(dragAxis < 0)
+            return null;
+        picking = false;
+
+        // Pushing the facelet along the drag rotates around the side normal crossed with the drag
+        int turnAxis = 3 - sideAxis - dragAxis;
+        boolean normalPositive = side == CubeletSide.EAST || side == CubeletSide.TOP || side == CubeletSide.NORTH;
+        boolean dragPositive = component(current, dragAxis) > 0;
+        boolean cyclic = (sideAxis + 1) % 3 == dragAxis;
+        boolean turnPositive = (normalPositive == dragPositive) == cyclic;
+
+        // Counter-clockwise columns and faces turn around +x and +z, but rows turn around -y
+        switch(turnAxis) {
+            case 0:
+                return new Move(Move.Axis.COLUMN, cubelet[0], turnPositive ? 1 : 3);
+            case 1:
+                return new Move(Move.Axis.ROW, cubelet[1], turnPositive ? 3 : 1);
+            default:
+                return new Move(Move.Axis.FACE, cubelet[2], turnPositive ? 1 : 3);
+        }
+    }
+
+    /**
+     * End the current drag
+     *
+     * @return Whether a drag was in progress
+     */
+    public boolean release() {
+        boolean wasPicking = picking;
+        picking = false;
+        return wasPicking;
+    }
+
+    /**
+     * @return Whether a drag started by a successful pick is in progress
+     */
+    public boolean isPicking() {
+        return picking;
+    }
+
+    /**
+     * @return Side of the cube the last pick hit
+     */
+    public CubeletSide getSide() {
+        return side;
+    }
+
+    /**
+     * Get the position of the cubelet the last pick hit
+     *
+     * @param axis 0 for x, 1 for y, 2 for z
+     * @return Position of the cubelet along the axis
+     */
+    public int getCubelet(int axis) {
+        return cubelet[axis];
+    }
+
+    private void toLocal(Cube cube, Ray ray) {
+        inverse.set(cube.getTransform()).inv();
+        localRay.set(ray).mul(inverse);
+    }
+
+    private void pointAt(Vector3 out, float t) {
+        out.set(localRay.direction).scl(t).add(localRay.origin);
+    }
+
+    private static float component(Vector3 v, int axis) {
+        return axis == 0 ? v.x : axis == 1 ? v.y : v.z;
+    }
+
+    private static int axisOf(CubeletSide side) {
+        switch(side) {
+            case WEST:
+            case EAST:
+                return 0;
+            case BOTTOM:
+            case TOP:
+                return 1;
+            default:
+                return 2;
+        }
+    }
+
+    private static CubeletSide sideOf(int axis, boolean positive) {
+        switch(axis) {
+            case 0:
+                return positive ? CubeletSide.EAST : CubeletSide.WEST;
+            case 1:
+                return positive ? CubeletSide.TOP : CubeletSide.BOTTOM;
+            default:
+                return positive ? CubeletSide.NORTH : CubeletSide.SOUTH;
+        }
+    }
+}
@@ -14,6 +14,13 @@ import com.badlogic.gdx.graphics.g3d.ModelBatch;
 import com.badlogic.gdx.graphics.g3d.attributes.ColorAttribute;
 import com.badlogic.gdx.graphics.g3d.environment.DirectionalLight;
 import com.badlogic.gdx.graphics.g3d.utils.CameraInputController;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 /**
  * Rubik's cube in libgdx
@@ -36,9 +43,16 @@ public class CubeSolve implements ApplicationListener {
 			"X - Rotate Middle",
 			"C - Rotate Back",
 			"",
+			"--Mouse--",
+			"Drag Cube - Turn Slice",
+			"Drag Elsewhere - Rotate Camera",
+			"",
 			"--Other--",
 			"R - Randomize",
-			"T - Reset"
+			"T - Reset",
+			"U - Undo",
+			"Y - Redo",
+			"V - Solve (up to " + SolveService.DEFAULT_MAX_DEPTH + " moves away)"
 	};
 
 	private Environment environment;
@@ -47,12 +61,39 @@ public class CubeSolve implements ApplicationListener {
 	private CameraInputController camController;
 	private ModelBatch modelBatch;
 	private BitmapFont fpsFont;
-	private BitmapFontCache controlsCache, fpsCache;
+	private BitmapFontCache controlsCache, fpsCache, solveCache;
 	private SpriteBatch hudBatch;
 	private Cube cube;
+	private File recordFile, replayFile;
+	private float replayRate;
+	private MoveRecorder recorder;
+	private MoveReplayer replayer;
+	private CubeHistory history;
+	private SolveService solveService;
+	private Future<List<Move>> solveFuture;
 
 	private boolean solved = true;
-    private long lastFpsUpdate;
+    private long lastFpsUpdate, lastSolveUpdate, solveMessageUntil;
+
+	/**
+	 * Record everything done to the cube into a move log once the game is created
+	 *
+	 * @param file File to write the log to
+	 */
+	public void recordTo(File file) {
+		this.recordFile = file;
+	}
+
+	/**
+	 * Replay a move log onto the cube once the game is created
+	 *
+	 * @param file Log written by a {@link MoveRecorder}
+	 * @param stepsPerSecond Number of steps of the log to show per second
+	 */
+	public void replay(File file, float stepsPerSecond) {
+		this.replayFile = file;
+		this.replayRate = stepsPerSecond;
+	}
 
 	@Override
 	public void create() {
@@ -70,7 +111,23 @@ public class CubeSolve implements ApplicationListener {
 		cam.far = 300f;
 		cam.update();
 
-		cube = new Cube(3);
+		try {
+			int size = 3;
+			if(replayFile != null) {
+				replayer = new MoveReplayer(replayFile);
+				size = replayer.getCubeSize();
+			}
+			cube = new Cube(size);
+			if(recordFile != null)
+				recorder = new MoveRecorder(cube, recordFile);
+		} catch(IOException e) {
+			throw new GdxRuntimeException("Couldn't open move log", e);
+		}
+		history = new CubeHistory(cube);
+		// Replayed steps aren't the user's to undo
+		if(replayer != null && replayer.getStepCount() > 0)
+			history.setPaused(true);
+		solveService = new SolveService();
 
 		hudCam = new OrthographicCamera(Gdx.graphics.getWidth(), Gdx.graphics.getHeight());
 		hudBatch = new SpriteBatch();
@@ -85,6 +142,7 @@ public class CubeSolve implements ApplicationListener {
 		}
         fpsCache = new BitmapFontCache(fpsFont, true);
         updateFpsCache();
+		solveCache = new BitmapFontCache(fpsFont, true);
 
         camController = new CubeSolveInputProcessor(this, cam);
 		Gdx.input.setInputProcessor(camController);
@@ -96,8 +154,14 @@ public class CubeSolve implements ApplicationListener {
 	public void render() {
 		hudBatch.setProjectionMatrix(hudCam.combined);
 
+		CubeAssets.update();
 		camController.update();
         updateFpsCache();
+		if(replayer != null)
+			playReplay();
+		if(solveFuture != null && solveFuture.isDone())
+			finishSolve();
+		updateSolveCache();
 
 		Gdx.gl.glClearColor(0.2f,
                 solved ? 0.2f + (1 + (float) Math.sin((System.currentTimeMillis() % 6282) / 200.0f)) * 0.05f : 0.2f,
@@ -110,6 +174,8 @@ public class CubeSolve implements ApplicationListener {
 
 		hudBatch.begin();
         fpsCache.draw(hudBatch);
+		if(solveFuture != null || System.currentTimeMillis() < solveMessageUntil)
+			solveCache.draw(hudBatch);
 		if(Gdx.app.getType().equals(Application.ApplicationType.Desktop)
 				|| Gdx.app.getType().equals(Application.ApplicationType.WebGL)) {
 			controlsCache.draw(hudBatch);
@@ -120,6 +186,16 @@ public class CubeSolve implements ApplicationListener {
 	@Override
 	public void dispose() {
 		modelBatch.dispose();
+		solveService.dispose();
+		history.dispose();
+		try {
+			if(recorder != null)
+				recorder.close();
+			if(replayer != null)
+				replayer.close();
+		} catch(IOException e) {
+			Gdx.app.error("CubeSolve", "Couldn't close move log", e);
+		}
 		cube.dispose();
 	}
 
@@ -154,11 +230,34 @@ public class CubeSolve implements ApplicationListener {
 		return cube;
 	}
 
+	/**
+	 * @return Undo history of the cube
+	 */
+	public CubeHistory getHistory() {
+		return history;
+	}
+
+	/**
+	 * Start solving the cube in the background, applying the solution once it is found
+	 */
+	public void solve() {
+		CubeState state = new CubeState(cube.getSize());
+		cube.getState(state.getFacelets());
+		solveFuture = solveService.solve(state);
+		lastSolveUpdate = 0;
+	}
+
 	/**
 	 * Check whether the cube is solved.
 	 * Should be called every time the cube changes.
 	 */
 	public void updateSolved() {
+		// A solve still running is for a state the cube is no longer in
+		if(solveFuture != null) {
+			solveService.cancel();
+			solveFuture = null;
+		}
+
 		this.solved = cube.isSolved();
         if(solved) {
             Gdx.graphics.setTitle("CubeSolve - You Win");
@@ -182,6 +281,64 @@ public class CubeSolve implements ApplicationListener {
 		}
 	}
 
+	private void playReplay() {
+		try {
+			if(!replayer.play(cube, Gdx.graphics.getDeltaTime(), replayRate))
+				return;
+		} catch(IOException e) {
+			throw new GdxRuntimeException("Couldn't read move log", e);
+		}
+		updateSolved();
+		if(replayer.getStep() == replayer.getStepCount())
+			history.setPaused(false);
+	}
+
+	private void finishSolve() {
+		List<Move> solution = null;
+		try {
+			solution = solveFuture.get();
+		} catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch(ExecutionException e) {
+			Gdx.app.error("CubeSolve", "Solver failed", e.getCause());
+		}
+		solveFuture = null;
+
+		if(solution != null) {
+			cube.apply(solution);
+			updateSolved();
+			showSolveMessage("Solved in " + solution.size() + " moves");
+			return;
+		}
+
+		// Further than the search reaches, such as after shuffling, so only say how close it got
+		SolveProgress progress = solveService.getProgress();
+		String message = progress != null && progress.isOutOfNodes()
+				? "Gave up after " + progress.getNodes() + " states"
+				: "No solution within " + SolveService.DEFAULT_MAX_DEPTH + " moves";
+		if(progress != null)
+			message += ", closest found was " + progress.getBest().size() + " moves leaving "
+					+ progress.getBestMismatch() + " off";
+		Gdx.app.log("CubeSolve", message);
+		showSolveMessage(message);
+	}
+
+	private void showSolveMessage(String message) {
+		solveCache.setText(message, 4, Gdx.graphics.getHeight() - 4 - fpsFont.getLineHeight());
+		solveMessageUntil = System.currentTimeMillis() + 5000l;
+	}
+
+	private void updateSolveCache() {
+		SolveProgress progress = solveService.getProgress();
+		if(solveFuture == null || progress == null || System.currentTimeMillis() - lastSolveUpdate < 100l)
+			return;
+		solveCache.setText("Solving up to " + SolveService.DEFAULT_MAX_DEPTH + " moves: depth " + progress.getDepth()
+				+ ", " + progress.getNodesPerSecond() + " nodes/s"
+				+ ", best " + progress.getBest().size() + " moves leaving " + progress.getBestMismatch() + " off",
+				4, Gdx.graphics.getHeight() - 4 - fpsFont.getLineHeight());
+		lastSolveUpdate = System.currentTimeMillis();
+	}
+
     private void updateFpsCache() {
         if(System.currentTimeMillis() - lastFpsUpdate > 1000l) {
             fpsCache.setText("FPS: " + Gdx.graphics.getFramesPerSecond(), 4, Gdx.graphics.getHeight() - 4);
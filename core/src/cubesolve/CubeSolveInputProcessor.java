@@ -9,12 +9,42 @@ import java.util.Random;
 public class CubeSolveInputProcessor extends CameraInputController {
 
     private final CubeSolve game;
+    private final CubePicker picker = new CubePicker();
 
     protected CubeSolveInputProcessor(CubeSolve game, Camera camera) {
         super(camera);
         this.game = game;
     }
 
+    @Override
+    public boolean touchDown(int screenX, int screenY, int pointer, int button) {
+        // Dragging on the cube turns it, dragging anywhere else moves the camera
+        if(pointer == 0 && button == Input.Buttons.LEFT
+                && picker.pick(game.getCube(), camera.getPickRay(screenX, screenY)))
+            return true;
+        return super.touchDown(screenX, screenY, pointer, button);
+    }
+
+    @Override
+    public boolean touchDragged(int screenX, int screenY, int pointer) {
+        if(pointer == 0 && picker.isPicking()) {
+            Move move = picker.drag(game.getCube(), camera.getPickRay(screenX, screenY));
+            if(move != null) {
+                game.getCube().apply(move);
+                game.updateSolved();
+            }
+            return true;
+        }
+        return super.touchDragged(screenX, screenY, pointer);
+    }
+
+    @Override
+    public boolean touchUp(int screenX, int screenY, int pointer, int button) {
+        if(pointer == 0 && picker.release())
+            return true;
+        return super.touchUp(screenX, screenY, pointer, button);
+    }
+
     @Override
     public boolean keyDown(int keycode) {
         boolean consumed = false;
@@ -66,7 +96,7 @@ public class CubeSolveInputProcessor extends CameraInputController {
                 consumed = true;
                 break;
             case Input.Keys.R:
-                game.getCube().shuffle(new Random());
+                game.getCube().shuffle(new Random().nextLong());
                 game.updateSolved();
                 consumed = true;
                 break;
@@ -75,6 +105,20 @@ public class CubeSolveInputProcessor extends CameraInputController {
                 game.updateSolved();
                 consumed = true;
                 break;
+            case Input.Keys.U:
+                game.getHistory().undo();
+                game.updateSolved();
+                consumed = true;
+                break;
+            case Input.Keys.Y:
+                game.getHistory().redo();
+                game.updateSolved();
+                consumed = true;
+                break;
+            case Input.Keys.V:
+                game.solve();
+                consumed = true;
+                break;
         }
 
         return consumed || super.keyDown(keycode);
@@ -0,0 +1,181 @@
+package cubesolve;
+
+import cubesolve.PlainCubelet.CubeletSide;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Packed state of a single cube, turned the same way as {@link Cube} but without rendering anything
+ */
+public class CubeState {
+
+    private final CubeLayout layout;
+    private final byte[] facelets;
+
+    /**
+     * Create a reset cube
+     *
+     * @param size Number of rows in the cube
+     */
+    public CubeState(int size) {
+        this.layout = CubeLayout.of(size);
+        this.facelets = new byte[layout.getStateSize()];
+        reset();
+    }
+
+    /**
+     * Create a copy of another state
+     *
+     * @param other State to copy
+     */
+    public CubeState(CubeState other) {
+        this.layout = other.layout;
+        this.facelets = other.facelets.clone();
+    }
+
+    /**
+     * @return Facelet indexing of the state
+     */
+    public CubeLayout getLayout() {
+        return layout;
+    }
+
+    /**
+     * @return Number of rows in the cube
+     */
+    public int getSize() {
+        return layout.getSize();
+    }
+
+    /**
+     * Get the packed facelets of the state. Changes to the returned array change the state.
+     *
+     * @return Packed state, see {@link CubeLayout}
+     */
+    public byte[] getFacelets() {
+        return facelets;
+    }
+
+    /**
+     * Overwrite the state
+     *
+     * @param state Packed state to copy, see {@link CubeLayout}
+     */
+    public void set(byte[] state) {
+        System.arraycopy(state, 0, facelets, 0, facelets.length);
+    }
+
+    /**
+     * Overwrite the state with another one of the same size
+     *
+     * @param other State to copy
+     */
+    public void set(CubeState other) {
+        set(other.facelets);
+    }
+
+    /**
+     * Turn a slice counter-clockwise once
+     *
+     * @param axis  Axis the slice is rotated around
+     * @param slice Index of the slice along the axis
+     */
+    public void rotate(Move.Axis axis, int slice) {
+        turn(axis, slice, 1);
+    }
+
+    /**
+     * Apply a move to the state
+     *
+     * @param move Move to apply
+     */
+    public void apply(Move move) {
+        turn(move.getAxis(), move.getSlice(), move.getTurns());
+    }
+
+    /**
+     * Apply moves to the state in order
+     *
+     * @param moves Moves to apply
+     */
+    public void apply(List<Move> moves) {
+        for(Move move : moves) {
+            apply(move);
+        }
+    }
+
+    /**
+     * Turn a slice counter-clockwise one to three times in a single pass over its cubelets
+     */
+    private void turn(Move.Axis axis, int slice, int turns) {
+        int s0 = axis.getCycleSide(0).ordinal();
+        int s1 = axis.getCycleSide(1).ordinal();
+        int s2 = axis.getCycleSide(2).ordinal();
+        int s3 = axis.getCycleSide(3).ordinal();
+        int[] cubelets = layout.getSliceCubelets(axis, slice);
+        for(int i = 0; i < cubelets.length; i++) {
+            int base = cubelets[i] * CubeLayout.SIDES;
+            byte c0 = facelets[base + s0], c1 = facelets[base + s1];
+            byte c2 = facelets[base + s2], c3 = facelets[base + s3];
+            switch(turns) {
+                case 1:
+                    facelets[base + s0] = c3; facelets[base + s1] = c0;
+                    facelets[base + s2] = c1; facelets[base + s3] = c2;
+                    break;
+                case 2:
+                    facelets[base + s0] = c2; facelets[base + s1] = c3;
+                    facelets[base + s2] = c0; facelets[base + s3] = c1;
+                    break;
+                default:
+                    facelets[base + s0] = c1; facelets[base + s1] = c2;
+                    facelets[base + s2] = c3; facelets[base + s3] = c0;
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Reset to the default state of a cube
+     */
+    public void reset() {
+        layout.fillSolved(facelets);
+    }
+
+    /**
+     * Shuffle the state the same way {@link Cube#shuffle(Random)} does
+     */
+    public void shuffle(Random rng) {
+        apply(MoveSimplifier.simplify(Move.shuffleSequence(layout.getSize(), rng)).getMoves());
+    }
+
+    /**
+     * Calculates whether the state is solved
+     *
+     * @return Whether all of the sides are of only one color
+     */
+    public boolean isSolved() {
+        for(CubeletSide side : CubeletSide.values()) {
+            int[] face = layout.getFaceFacelets(side);
+            byte color = facelets[face[0]];
+            for(int i = 1; i < face.length; i++) {
+                if(facelets[face[i]] != color)
+                    return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if(this == o) return true;
+        if(!(o instanceof CubeState)) return false;
+        return Arrays.equals(facelets, ((CubeState) o).facelets);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(facelets);
+    }
+}
@@ -66,4 +66,11 @@ public interface Cubelet {
      * @return Color of the specified side
      */
     PlainCubelet.CubeletColor getColor(PlainCubelet.CubeletSide side);
+
+    /**
+     * Set the color on a side of the cubelet
+     * @param side Side to set the color of
+     * @param color New color of the side
+     */
+    void setColor(PlainCubelet.CubeletSide side, PlainCubelet.CubeletColor color);
 }
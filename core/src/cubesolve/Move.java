@@ -0,0 +1,177 @@
+package cubesolve;
+
+import cubesolve.PlainCubelet.CubeletSide;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Counter-clockwise turn of a single slice of the cube, possibly repeated
+ */
+public final class Move {
+
+    private final Axis axis;
+    private final int slice;
+    private final int turns;
+
+    /**
+     * Create a single quarter turn
+     *
+     * @param axis  Axis the slice is rotated around
+     * @param slice Index of the slice along the axis
+     */
+    public Move(Axis axis, int slice) {
+        this(axis, slice, 1);
+    }
+
+    /**
+     * Create a turn of the specified number of quarter turns
+     *
+     * @param axis  Axis the slice is rotated around
+     * @param slice Index of the slice along the axis
+     * @param turns Number of counter-clockwise quarter turns, negative for clockwise
+     */
+    public Move(Axis axis, int slice, int turns) {
+        if(axis == null)
+            throw new IllegalArgumentException("Axis can't be null");
+        if(slice < 0)
+            throw new IllegalArgumentException("Slice can't be negative: " + slice);
+        this.axis = axis;
+        this.slice = slice;
+        this.turns = ((turns % 4) + 4) % 4;
+        if(this.turns == 0)
+            throw new IllegalArgumentException("Move doesn't turn anything: " + turns);
+    }
+
+    /**
+     * Generate the quarter turns done when shuffling a cube
+     *
+     * @param size Number of rows in the cube
+     * @param rng  Random number generator to pick the turns with
+     * @return Quarter turns in the order they are applied
+     */
+    public static List<Move> shuffleSequence(int size, Random rng) {
+        List<Move> moves = new ArrayList<Move>();
+        for(int iter = 0; iter < 100; iter++) {
+            for(int row = 0; row < size; row++) {
+                for(int times = 0; times < rng.nextInt(3); times++) {
+                    moves.add(new Move(Axis.ROW, row));
+                }
+            }
+            for(int col = 0; col < size; col++) {
+                for(int times = 0; times < rng.nextInt(3); times++) {
+                    moves.add(new Move(Axis.COLUMN, col));
+                }
+            }
+            for(int face = 0; face < size; face++) {
+                for(int times = 0; times < rng.nextInt(3); times++) {
+                    moves.add(new Move(Axis.FACE, face));
+                }
+            }
+        }
+        return moves;
+    }
+
+    /**
+     * Unpack a move packed by {@link #toCode()}
+     *
+     * @param code Packed move
+     * @return Move the code represents
+     */
+    public static Move fromCode(int code) {
+        int axis = (code >>> 14) & 0x3;
+        if(axis >= Axis.values().length)
+            throw new IllegalArgumentException("Invalid move code: " + code);
+        return new Move(Axis.values()[axis], code & 0xFFF, (code >>> 12) & 0x3);
+    }
+
+    /**
+     * Pack the move into 16 bits: 2 for the axis, 2 for the turns and 12 for the slice
+     *
+     * @return Packed move, see {@link #fromCode(int)}
+     */
+    public int toCode() {
+        if(slice > 0xFFF)
+            throw new IllegalStateException("Slice too large to pack: " + slice);
+        return axis.ordinal() << 14 | turns << 12 | slice;
+    }
+
+    /**
+     * @return Axis the slice is rotated around
+     */
+    public Axis getAxis() {
+        return axis;
+    }
+
+    /**
+     * @return Index of the slice along the axis
+     */
+    public int getSlice() {
+        return slice;
+    }
+
+    /**
+     * @return Number of counter-clockwise quarter turns, between 1 and 3, inclusive
+     */
+    public int getTurns() {
+        return turns;
+    }
+
+    /**
+     * @return Move undoing this one
+     */
+    public Move inverse() {
+        return new Move(axis, slice, 4 - turns);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if(this == o) return true;
+        if(!(o instanceof Move)) return false;
+        Move other = (Move) o;
+        return axis == other.axis && slice == other.slice && turns == other.turns;
+    }
+
+    @Override
+    public int hashCode() {
+        return (axis.ordinal() * 31 + slice) * 4 + turns;
+    }
+
+    @Override
+    public String toString() {
+        return axis.name() + "[" + slice + "]" + (turns == 1 ? "" : turns == 2 ? "2" : "'");
+    }
+
+    /**
+     * Axis a slice is rotated around, along with how the cubelet colors cycle in a counter-clockwise turn
+     */
+    public enum Axis {
+        /** Column (x) rotated tall-wise, see {@link Cube#rotateColumn(int)} */
+        COLUMN(CubeletSide.TOP, CubeletSide.NORTH, CubeletSide.BOTTOM, CubeletSide.SOUTH),
+        /** Row (y) rotated wide-wise, see {@link Cube#rotateRow(int)} */
+        ROW(CubeletSide.EAST, CubeletSide.NORTH, CubeletSide.WEST, CubeletSide.SOUTH),
+        /** Face (z) rotated depth-wise, see {@link Cube#rotateFace(int)} */
+        FACE(CubeletSide.EAST, CubeletSide.TOP, CubeletSide.WEST, CubeletSide.BOTTOM);
+
+        private final CubeletSide[] cycle;
+
+        /**
+         * @param cycle Sides in the order colors move between them, each color moving to the next side
+         */
+        Axis(CubeletSide... cycle) {
+            this.cycle = cycle;
+        }
+
+        /**
+         * Get a side in the color cycle of a counter-clockwise turn.
+         * The color on side i moves to side i + 1, and the last moves to the first.
+         *
+         * @param i Position in the cycle, between 0 and 3, inclusive
+         * @return Side at the position
+         */
+        public CubeletSide getCycleSide(int i) {
+            return cycle[i];
+        }
+    }
+}
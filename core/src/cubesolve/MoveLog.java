@@ -0,0 +1,41 @@
+package cubesolve;
+
+/**
+ * Binary format written by {@link MoveRecorder} and read by {@link MoveReplayer}.
+ *
+ * The header is the magic, version, cube size and checkpoint interval as ints.
+ * Each record after it is a step done to the cube, except for checkpoints:
+ * <ul>
+ *     <li>{@code aassssss} - quarter turn of slice {@code s} around axis {@code a}.
+ *     Slices from 63 up store 63 and are followed by the slice as an unsigned short.</li>
+ *     <li>{@link #RESET} - the cube was reset</li>
+ *     <li>{@link #SHUFFLE} followed by the long seed - the cube was shuffled from a seed</li>
+ *     <li>{@link #STATE} followed by the packed state - the state of the cube was set</li>
+ *     <li>{@link #CHECKPOINT} followed by the packed state - state of the cube at this point, not a step</li>
+ *     <li>{@link #END} - no more records, the footer follows</li>
+ * </ul>
+ * The footer lists the step and file offset of each checkpoint as longs,
+ * followed by the checkpoint count as an int, the step count as a long and {@link #FOOTER_MAGIC}.
+ * A log that wasn't closed has no footer, and is read up to its last complete record.
+ */
+final class MoveLog {
+
+    static final int MAGIC = 0x4355424C; // CUBL
+    static final int FOOTER_MAGIC = 0x4355424C ^ 0xFFFFFFFF;
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 16;
+    static final int FOOTER_SIZE = 16;
+    static final int FOOTER_ENTRY_SIZE = 16;
+
+    static final int SLICE_MASK = 0x3F;
+    static final int WIDE_SLICE = 0x3F;
+
+    static final int RESET = 0xC0;
+    static final int SHUFFLE = 0xC1;
+    static final int STATE = 0xC2;
+    static final int CHECKPOINT = 0xC3;
+    static final int END = 0xC4;
+
+    private MoveLog() {
+    }
+}
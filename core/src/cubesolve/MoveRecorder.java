@@ -0,0 +1,171 @@
+package cubesolve;
+
+import com.badlogic.gdx.utils.GdxRuntimeException;
+
+import java.io.*;
+
+/**
+ * Records everything done to a cube into a compact binary log, see {@link MoveLog} for the format.
+ * Each quarter turn takes a single byte for cubes up to 63 rows, and the state of the cube
+ * is written at regular intervals so a {@link MoveReplayer} can seek without replaying from the start.
+ */
+public class MoveRecorder implements CubeListener, Closeable {
+
+    /** Steps between checkpoints when no interval is given */
+    public static final int DEFAULT_CHECKPOINT_INTERVAL = 4096;
+
+    private final Cube cube;
+    private final DataOutputStream out;
+    private final int checkpointInterval;
+    private final byte[] state;
+    private long position;
+    private long stepCount;
+    private long[] checkpointSteps = new long[16];
+    private long[] checkpointOffsets = new long[16];
+    private int checkpointCount;
+    private boolean closed;
+
+    /**
+     * Start recording a cube with the default checkpoint interval
+     *
+     * @param cube Cube to record
+     * @param file File to write the log to, overwritten if it exists
+     */
+    public MoveRecorder(Cube cube, File file) throws IOException {
+        this(cube, file, DEFAULT_CHECKPOINT_INTERVAL);
+    }
+
+    /**
+     * Start recording a cube
+     *
+     * @param cube               Cube to record
+     * @param file               File to write the log to, overwritten if it exists
+     * @param checkpointInterval Number of steps between checkpoints of the cube state
+     */
+    public MoveRecorder(Cube cube, File file, int checkpointInterval) throws IOException {
+        if(checkpointInterval < 1)
+            throw new IllegalArgumentException("Checkpoint interval must be positive: " + checkpointInterval);
+        this.cube = cube;
+        this.checkpointInterval = checkpointInterval;
+        this.state = new byte[cube.getLayout().getStateSize()];
+        this.out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 1 << 16));
+
+        out.writeInt(MoveLog.MAGIC);
+        out.writeInt(MoveLog.VERSION);
+        out.writeInt(cube.getSize());
+        out.writeInt(checkpointInterval);
+        position = MoveLog.HEADER_SIZE;
+        writeCheckpoint();
+
+        cube.addListener(this);
+    }
+
+    /**
+     * @return Number of steps recorded so far
+     */
+    public long getStepCount() {
+        return stepCount;
+    }
+
+    @Override
+    public void rotated(Cube cube, Move.Axis axis, int slice) {
+        try {
+            if(slice < MoveLog.WIDE_SLICE) {
+                out.writeByte(axis.ordinal() << 6 | slice);
+                position += 1;
+            } else {
+                out.writeByte(axis.ordinal() << 6 | MoveLog.WIDE_SLICE);
+                out.writeShort(slice);
+                position += 3;
+            }
+            stepDone();
+        } catch(IOException e) {
+            throw new GdxRuntimeException("Couldn't record turn", e);
+        }
+    }
+
+    @Override
+    public void shuffled(Cube cube, long seed) {
+        try {
+            out.writeByte(MoveLog.SHUFFLE);
+            out.writeLong(seed);
+            position += 9;
+            stepDone();
+        } catch(IOException e) {
+            throw new GdxRuntimeException("Couldn't record shuffle", e);
+        }
+    }
+
+    @Override
+    public void reset(Cube cube) {
+        try {
+            out.writeByte(MoveLog.RESET);
+            position += 1;
+            stepDone();
+        } catch(IOException e) {
+            throw new GdxRuntimeException("Couldn't record reset", e);
+        }
+    }
+
+    @Override
+    public void stateSet(Cube cube) {
+        try {
+            cube.getState(state);
+            out.writeByte(MoveLog.STATE);
+            out.write(state);
+            position += 1 + state.length;
+            stepDone();
+        } catch(IOException e) {
+            throw new GdxRuntimeException("Couldn't record state", e);
+        }
+    }
+
+    /**
+     * Stop recording and write the checkpoint index so the log can be opened without scanning it
+     */
+    @Override
+    public void close() throws IOException {
+        if(closed)
+            return;
+        closed = true;
+        cube.removeListener(this);
+
+        try {
+            out.writeByte(MoveLog.END);
+            for(int i = 0; i < checkpointCount; i++) {
+                out.writeLong(checkpointSteps[i]);
+                out.writeLong(checkpointOffsets[i]);
+            }
+            out.writeInt(checkpointCount);
+            out.writeLong(stepCount);
+            out.writeInt(MoveLog.FOOTER_MAGIC);
+        } finally {
+            out.close();
+        }
+    }
+
+    private void stepDone() throws IOException {
+        stepCount++;
+        if(stepCount % checkpointInterval == 0)
+            writeCheckpoint();
+    }
+
+    private void writeCheckpoint() throws IOException {
+        if(checkpointCount == checkpointSteps.length) {
+            long[] steps = new long[checkpointCount * 2];
+            long[] offsets = new long[checkpointCount * 2];
+            System.arraycopy(checkpointSteps, 0, steps, 0, checkpointCount);
+            System.arraycopy(checkpointOffsets, 0, offsets, 0, checkpointCount);
+            checkpointSteps = steps;
+            checkpointOffsets = offsets;
+        }
+        checkpointSteps[checkpointCount] = stepCount;
+        checkpointOffsets[checkpointCount] = position;
+        checkpointCount++;
+
+        cube.getState(state);
+        out.writeByte(MoveLog.CHECKPOINT);
+        out.write(state);
+        position += 1 + state.length;
+    }
+}
@@ -0,0 +1,352 @@
+package cubesolve;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Random;
+
+/**
+ * Replays a log written by {@link MoveRecorder}, see {@link MoveLog} for the format.
+ * The log is memory mapped a window at a time, so logs of any length can be replayed,
+ * into a {@link CubeState}, either headless as fast as possible or onto a {@link Cube}
+ * at a set number of steps per second.
+ */
+public class MoveReplayer implements Closeable {
+
+    /** Largest part of the log mapped at once */
+    private static final int WINDOW_SIZE = 1 << 28;
+    private static final Move.Axis[] AXIS_VALUES = Move.Axis.values();
+
+    private final RandomAccessFile file;
+    private final FileChannel channel;
+    private final long fileSize;
+    private MappedByteBuffer window;
+    private long windowStart;
+    private final int size;
+    private final CubeState state;
+    private final int stateSize;
+    private long[] checkpointSteps;
+    private long[] checkpointOffsets;
+    private int checkpointCount;
+    private long stepCount;
+    private long recordsEnd;
+    private long position;
+    private long step;
+    private float pendingSteps;
+
+    /**
+     * Open a log, positioned before its first step
+     *
+     * @param logFile Log written by a {@link MoveRecorder}
+     */
+    public MoveReplayer(File logFile) throws IOException {
+        this.file = new RandomAccessFile(logFile, "r");
+        try {
+            channel = file.getChannel();
+            fileSize = channel.size();
+            if(fileSize < MoveLog.HEADER_SIZE)
+                throw new IOException("Not a move log: " + logFile);
+            ByteBuffer header = map(0, MoveLog.HEADER_SIZE);
+            if(header.getInt() != MoveLog.MAGIC)
+                throw new IOException("Not a move log: " + logFile);
+            int version = header.getInt();
+            if(version != MoveLog.VERSION)
+                throw new IOException("Unsupported move log version: " + version);
+            size = header.getInt();
+            header.getInt(); // Checkpoint interval, the checkpoints themselves are found from the index
+            if(size < 1)
+                throw new IOException("Invalid cube size in move log: " + size);
+            state = new CubeState(size);
+            stateSize = state.getLayout().getStateSize();
+
+            if(!readFooter())
+                scanRecords();
+            loadCheckpoint(0);
+        } catch(IOException e) {
+            file.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return Number of rows in the recorded cube
+     */
+    public int getCubeSize() {
+        return size;
+    }
+
+    /**
+     * @return Number of steps in the log
+     */
+    public long getStepCount() {
+        return stepCount;
+    }
+
+    /**
+     * @return Number of steps replayed to get to the current state
+     */
+    public long getStep() {
+        return step;
+    }
+
+    /**
+     * Get the replayed state. Changes to it are overwritten by the next seek.
+     *
+     * @return State of the cube after the current step
+     */
+    public CubeState getState() {
+        return state;
+    }
+
+    /**
+     * Jump to the state after a step, starting from the closest checkpoint before it
+     *
+     * @param target Number of steps to have replayed, clamped to the steps in the log
+     */
+    public void seek(long target) throws IOException {
+        target = Math.max(0, Math.min(target, stepCount));
+
+        int checkpoint = findCheckpoint(target);
+        // Keep going from the current step if that is closer than the checkpoint
+        if(target < step || checkpointSteps[checkpoint] > step)
+            loadCheckpoint(checkpoint);
+        while(step < target && nextRecord()) {
+            // Replaying up to the target
+        }
+    }
+
+    /**
+     * Replay the next step
+     *
+     * @return Whether there was a step left to replay
+     */
+    public boolean step() throws IOException {
+        return step < stepCount && nextRecord();
+    }
+
+    /**
+     * Replay every remaining step as fast as possible
+     *
+     * @return Number of steps replayed
+     */
+    public long replayAll() throws IOException {
+        long start = step;
+        while(nextRecord()) {
+            // Replaying up to the end
+        }
+        return step - start;
+    }
+
+    /**
+     * Replay onto a cube at a set rate, meant to be called every frame.
+     * The cube is rerendered at most once per call, no matter how many steps were replayed.
+     *
+     * @param cube           Cube to show the replayed state on, of the same size as the log
+     * @param delta          Seconds since the last call
+     * @param stepsPerSecond Number of steps to replay per second
+     * @return Whether the state of the cube changed
+     */
+    public boolean play(Cube cube, float delta, float stepsPerSecond) throws IOException {
+        pendingSteps += delta * stepsPerSecond;
+        long steps = (long) pendingSteps;
+        pendingSteps -= steps;
+
+        long start = step;
+        seek(step + steps);
+        if(step == start)
+            return false;
+        cube.setState(state.getFacelets());
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        file.close();
+    }
+
+    /**
+     * Read the checkpoint index from the footer, checking it fits the file
+     *
+     * @return Whether there was a valid footer
+     */
+    private boolean readFooter() throws IOException {
+        if(fileSize < MoveLog.HEADER_SIZE + MoveLog.FOOTER_SIZE + 1)
+            return false;
+        ByteBuffer footer = map(fileSize - MoveLog.FOOTER_SIZE, MoveLog.FOOTER_SIZE);
+        int count = footer.getInt();
+        long steps = footer.getLong();
+        if(footer.getInt() != MoveLog.FOOTER_MAGIC)
+            return false;
+
+        // The index and the end record have to fit between the header and the footer
+        long entries = fileSize - MoveLog.FOOTER_SIZE - (long) count * MoveLog.FOOTER_ENTRY_SIZE;
+        if(count < 1 || steps < 0 || entries - 1 < MoveLog.HEADER_SIZE
+                || (map(entries - 1, 1).get() & 0xFF) != MoveLog.END)
+            return false;
+
+        long[] stepsAt = new long[count];
+        long[] offsets = new long[count];
+        for(int i = 0; i < count; i++) {
+            ByteBuffer entry = map(entries + (long) i * MoveLog.FOOTER_ENTRY_SIZE, MoveLog.FOOTER_ENTRY_SIZE);
+            stepsAt[i] = entry.getLong();
+            offsets[i] = entry.getLong();
+            // Checkpoints are in order, the first is at the start, and each is a whole checkpoint record
+            boolean ordered = i == 0 ? stepsAt[i] == 0 && offsets[i] >= MoveLog.HEADER_SIZE
+                    : stepsAt[i] >= stepsAt[i - 1] && offsets[i] > offsets[i - 1];
+            if(!ordered || stepsAt[i] > steps || offsets[i] + 1 + stateSize > entries - 1
+                    || (map(offsets[i], 1).get() & 0xFF) != MoveLog.CHECKPOINT)
+                return false;
+        }
+
+        checkpointCount = count;
+        checkpointSteps = stepsAt;
+        checkpointOffsets = offsets;
+        stepCount = steps;
+        recordsEnd = entries - 1; // The end record
+        return true;
+    }
+
+    /**
+     * Find the checkpoints of a log without a footer by walking every record
+     */
+    private void scanRecords() throws IOException {
+        checkpointCount = 0;
+        checkpointSteps = new long[16];
+        checkpointOffsets = new long[16];
+        long steps = 0;
+        long offset = MoveLog.HEADER_SIZE;
+
+        scan:
+        while(offset < fileSize) {
+            int record = map(offset, 1).get() & 0xFF;
+            int payload;
+            switch(record) {
+                case MoveLog.RESET:
+                    payload = 0;
+                    break;
+                case MoveLog.SHUFFLE:
+                    payload = 8;
+                    break;
+                case MoveLog.STATE:
+                case MoveLog.CHECKPOINT:
+                    payload = stateSize;
+                    break;
+                case MoveLog.END:
+                    break scan;
+                default:
+                    if(record > MoveLog.END)
+                        throw new IOException("Corrupt move log at offset " + offset);
+                    payload = (record & MoveLog.SLICE_MASK) == MoveLog.WIDE_SLICE ? 2 : 0;
+                    break;
+            }
+            // Ignore a record cut off by the end of the file
+            if(fileSize - offset - 1 < payload)
+                break;
+
+            if(record == MoveLog.CHECKPOINT) {
+                if(checkpointCount == checkpointSteps.length) {
+                    long[] newSteps = new long[checkpointCount * 2];
+                    long[] newOffsets = new long[checkpointCount * 2];
+                    System.arraycopy(checkpointSteps, 0, newSteps, 0, checkpointCount);
+                    System.arraycopy(checkpointOffsets, 0, newOffsets, 0, checkpointCount);
+                    checkpointSteps = newSteps;
+                    checkpointOffsets = newOffsets;
+                }
+                checkpointSteps[checkpointCount] = steps;
+                checkpointOffsets[checkpointCount] = offset;
+                checkpointCount++;
+            } else {
+                steps++;
+            }
+            offset += 1 + payload;
+        }
+
+        if(checkpointCount == 0 || checkpointSteps[0] != 0)
+            throw new IOException("Move log has no initial checkpoint");
+        stepCount = steps;
+        recordsEnd = offset;
+    }
+
+    /**
+     * Get part of the log, mapping a new window if it isn't in the current one
+     *
+     * @param offset Offset in the file of the part
+     * @param length Length of the part, at most the size of a record
+     * @return Buffer positioned at the part
+     */
+    private ByteBuffer map(long offset, int length) throws IOException {
+        if(window == null || offset < windowStart || offset + length > windowStart + window.limit()) {
+            windowStart = offset;
+            long mapped = Math.min(Math.max(WINDOW_SIZE, length), fileSize - offset);
+            window = channel.map(FileChannel.MapMode.READ_ONLY, offset, mapped);
+        }
+        window.position((int) (offset - windowStart));
+        return window;
+    }
+
+    private void loadCheckpoint(int checkpoint) throws IOException {
+        position = checkpointOffsets[checkpoint] + 1;
+        map(position, stateSize).get(state.getFacelets());
+        position += stateSize;
+        step = checkpointSteps[checkpoint];
+    }
+
+    /**
+     * Find the last checkpoint at or before a step
+     */
+    private int findCheckpoint(long target) {
+        int low = 0, high = checkpointCount - 1;
+        while(low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if(checkpointSteps[mid] <= target)
+                low = mid;
+            else
+                high = mid - 1;
+        }
+        return low;
+    }
+
+    /**
+     * Replay the next step into the state, skipping checkpoints
+     *
+     * @return Whether there was a step left
+     */
+    private boolean nextRecord() throws IOException {
+        while(position < recordsEnd) {
+            int record = map(position++, 1).get() & 0xFF;
+            switch(record) {
+                case MoveLog.RESET:
+                    state.reset();
+                    step++;
+                    return true;
+                case MoveLog.SHUFFLE:
+                    state.shuffle(new Random(map(position, 8).getLong()));
+                    position += 8;
+                    step++;
+                    return true;
+                case MoveLog.STATE:
+                    map(position, stateSize).get(state.getFacelets());
+                    position += stateSize;
+                    step++;
+                    return true;
+                case MoveLog.CHECKPOINT:
+                    // Already at this state when replaying in order
+                    position += stateSize;
+                    break;
+                case MoveLog.END:
+                    return false;
+                default:
+                    int slice = record & MoveLog.SLICE_MASK;
+                    if(slice == MoveLog.WIDE_SLICE) {
+                        slice = map(position, 2).getShort() & 0xFFFF;
+                        position += 2;
+                    }
+                    state.rotate(AXIS_VALUES[record >>> 6], slice);
+                    step++;
+                    return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,112 @@
+package cubesolve;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Shortens move sequences without changing the state they leave a cube in.
+ * Turns of different slices around the same axis never share a cubelet, so they can be done in any order.
+ * Every run of moves around one axis is merged into at most one move per slice, in increasing slice order,
+ * and runs that cancel out entirely let the runs around them merge too.
+ */
+public final class MoveSimplifier {
+
+    private MoveSimplifier() {
+    }
+
+    /**
+     * Simplify a move sequence into its normal form
+     *
+     * @param moves Moves in the order they are applied
+     * @return Simplified moves along with how much was removed
+     */
+    public static Result simplify(List<Move> moves) {
+        // Each run maps slice to counter-clockwise quarter turns, sorted by slice
+        List<Move.Axis> runAxes = new ArrayList<Move.Axis>();
+        List<TreeMap<Integer, Integer>> runs = new ArrayList<TreeMap<Integer, Integer>>();
+
+        for(Move move : moves) {
+            int last = runs.size() - 1;
+            if(last < 0 || runAxes.get(last) != move.getAxis()) {
+                runAxes.add(move.getAxis());
+                runs.add(new TreeMap<Integer, Integer>());
+                last++;
+            }
+
+            TreeMap<Integer, Integer> run = runs.get(last);
+            Integer turns = run.get(move.getSlice());
+            int total = ((turns == null ? 0 : turns) + move.getTurns()) % 4;
+            if(total == 0)
+                run.remove(move.getSlice());
+            else
+                run.put(move.getSlice(), total);
+
+            if(run.isEmpty()) {
+                runAxes.remove(last);
+                runs.remove(last);
+            }
+        }
+
+        List<Move> simplified = new ArrayList<Move>();
+        for(int i = 0; i < runs.size(); i++) {
+            for(Map.Entry<Integer, Integer> entry : runs.get(i).entrySet()) {
+                simplified.add(new Move(runAxes.get(i), entry.getKey(), entry.getValue()));
+            }
+        }
+        return new Result(simplified, moves.size() - simplified.size(),
+                countQuarterTurns(moves) - countQuarterTurns(simplified));
+    }
+
+    /**
+     * Count the quarter turns in a sequence, counting clockwise turns as one quarter turn
+     *
+     * @param moves Moves to count
+     * @return Number of quarter turns
+     */
+    public static int countQuarterTurns(List<Move> moves) {
+        int count = 0;
+        for(Move move : moves) {
+            count += move.getTurns() == 3 ? 1 : move.getTurns();
+        }
+        return count;
+    }
+
+    /**
+     * Simplified move sequence
+     */
+    public static final class Result {
+
+        private final List<Move> moves;
+        private final int removedMoves;
+        private final int removedQuarterTurns;
+
+        private Result(List<Move> moves, int removedMoves, int removedQuarterTurns) {
+            this.moves = moves;
+            this.removedMoves = removedMoves;
+            this.removedQuarterTurns = removedQuarterTurns;
+        }
+
+        /**
+         * @return Simplified moves in the order they are applied
+         */
+        public List<Move> getMoves() {
+            return moves;
+        }
+
+        /**
+         * @return Number of moves fewer than in the original sequence
+         */
+        public int getRemovedMoves() {
+            return removedMoves;
+        }
+
+        /**
+         * @return Number of quarter turns fewer than in the original sequence, see {@link #countQuarterTurns(List)}
+         */
+        public int getRemovedQuarterTurns() {
+            return removedQuarterTurns;
+        }
+    }
+}
@@ -213,6 +213,30 @@ public class PlainCubelet implements Cubelet {
         }
     }
 
+    @Override
+    public void setColor(CubeletSide side, CubeletColor color) {
+        switch(side) {
+            case TOP:
+                topColor = color;
+                break;
+            case BOTTOM:
+                bottomColor = color;
+                break;
+            case WEST:
+                westColor = color;
+                break;
+            case EAST:
+                eastColor = color;
+                break;
+            case NORTH:
+                northColor = color;
+                break;
+            case SOUTH:
+                southColor = color;
+                break;
+        }
+    }
+
     public enum CubeletColor {
         GREEN(0, 1, 0), YELLOW(0.8f, 0.8f, 0), RED(1, 0, 0), BLUE(0, 0, 1), WHITE(1, 1, 1), ORANGE(0.8f, 0.3f, 0);
 
@@ -0,0 +1,81 @@
+package cubesolve;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Snapshot of how far a {@link Solver} has gotten
+ */
+public final class SolveProgress {
+
+    private final int depth;
+    private final long nodes;
+    private final long nodesPerSecond;
+    private final List<Move> best;
+    private final int bestMismatch;
+    private final boolean outOfNodes;
+    private final boolean done;
+
+    SolveProgress(int depth, long nodes, long nodesPerSecond, List<Move> best, int bestMismatch,
+                  boolean outOfNodes, boolean done) {
+        this.depth = depth;
+        this.nodes = nodes;
+        this.nodesPerSecond = nodesPerSecond;
+        this.best = Collections.unmodifiableList(best);
+        this.bestMismatch = bestMismatch;
+        this.outOfNodes = outOfNodes;
+        this.done = done;
+    }
+
+    /**
+     * @return Number of moves currently being searched up to
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * @return Number of states looked at so far
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * @return Number of states looked at per second
+     */
+    public long getNodesPerSecond() {
+        return nodesPerSecond;
+    }
+
+    /**
+     * Get the moves reaching the closest state to solved found so far.
+     * Once the search is done and {@link #getBestMismatch()} is 0, these are the solution.
+     *
+     * @return Moves from the starting state
+     */
+    public List<Move> getBest() {
+        return best;
+    }
+
+    /**
+     * @return Number of facelets that don't match the rest of their side after the best moves
+     */
+    public int getBestMismatch() {
+        return bestMismatch;
+    }
+
+    /**
+     * @return Whether the search gave up because it looked at as many states as it was allowed to
+     */
+    public boolean isOutOfNodes() {
+        return outOfNodes;
+    }
+
+    /**
+     * @return Whether the search has finished, with or without a solution
+     */
+    public boolean isDone() {
+        return done;
+    }
+}
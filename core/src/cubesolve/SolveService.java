@@ -0,0 +1,109 @@
+package cubesolve;
+
+import com.badlogic.gdx.utils.Disposable;
+
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * Runs a {@link Solver} on its own thread so solving never holds up rendering.
+ * Only one solve runs at a time, and starting a new one cancels the previous one.
+ * By default it finds solutions of up to 7 moves on 2x2 and 3x3 cubes within a few seconds,
+ * and gives up on anything further, see {@link Solver}.
+ */
+public class SolveService implements Disposable {
+
+    /** Maximum number of moves searched for when no limit is given */
+    public static final int DEFAULT_MAX_DEPTH = 7;
+    /** Maximum number of states looked at when no limit is given, enough to search 7 moves of a 2x2 or 3x3 cube */
+    public static final long DEFAULT_MAX_NODES = 1 << 24;
+
+    private final ExecutorService executor;
+    private final Solver solver;
+    private Future<List<Move>> current;
+    private volatile SolveProgress progress;
+    private long generation;
+
+    /**
+     * Create a solve service with the default limits
+     */
+    public SolveService() {
+        this(DEFAULT_MAX_DEPTH, DEFAULT_MAX_NODES);
+    }
+
+    /**
+     * Create a solve service
+     *
+     * @param maxDepth Maximum number of moves in a solution
+     * @param maxNodes Maximum number of states to look at in each solve
+     */
+    public SolveService(int maxDepth, long maxNodes) {
+        this.solver = new Solver(maxDepth, maxNodes);
+        this.executor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "cube-solver");
+                thread.setDaemon(true);
+                thread.setPriority(Thread.MIN_PRIORITY);
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * Start solving a state in the background, cancelling any solve still running
+     *
+     * @param state State to solve, copied so it can keep changing
+     * @return Future of the solution, or of null if there is none within the depth limit
+     */
+    public synchronized Future<List<Move>> solve(CubeState state) {
+        cancel();
+
+        final CubeState start = new CubeState(state);
+        final long id = generation;
+        current = executor.submit(new Callable<List<Move>>() {
+            @Override
+            public List<Move> call() throws Exception {
+                return solver.solve(start, new Solver.ProgressListener() {
+                    @Override
+                    public void progress(SolveProgress update) {
+                        // Progress from a cancelled solve that hasn't stopped yet is stale.
+                        // Checking under the same lock as cancel() keeps it from slipping in after a cancel
+                        synchronized(SolveService.this) {
+                            if(generation == id)
+                                progress = update;
+                        }
+                    }
+                });
+            }
+        });
+        return current;
+    }
+
+    /**
+     * Cancel the running solve, if any, and clear its progress
+     */
+    public synchronized void cancel() {
+        if(current != null) {
+            current.cancel(true);
+            current = null;
+        }
+        generation++;
+        progress = null;
+    }
+
+    /**
+     * Get the progress of the running solve without waiting for it
+     *
+     * @return Latest progress of the running or last finished solve, or null if there is none
+     */
+    public SolveProgress getProgress() {
+        return progress;
+    }
+
+    @Override
+    public void dispose() {
+        cancel();
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,198 @@
+package cubesolve;
+
+import cubesolve.PlainCubelet.CubeletSide;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Finds the shortest move sequence solving a cube with iterative deepening A*.
+ * A turn changes at most 4 visible facelets per row, so the facelets that don't match
+ * the most common color of their side, divided by that, never overestimates the moves left.
+ * The search checks for interruption regularly so it can be cancelled from another thread.
+ *
+ * The bound is weak, so the work grows about 20 times with every move of the solution.
+ * On a 2x2 or 3x3 cube, 7 moves take a few million nodes, about a second, and 8 moves take around
+ * a hundred million. A shuffled cube is far out of reach, so give the search a node budget
+ * and fall back to the best state it found when the budget runs out.
+ */
+public class Solver {
+
+    private static final int PROGRESS_INTERVAL = 1 << 16;
+
+    private final int maxDepth;
+    private final long maxNodes;
+
+    /**
+     * Listener receiving progress while solving
+     */
+    public interface ProgressListener {
+        /**
+         * Called whenever the search depth or the best state improves, and regularly in between
+         *
+         * @param progress How far the search has gotten
+         */
+        void progress(SolveProgress progress);
+    }
+
+    /**
+     * Create a solver that gives up on solutions longer than a limit, however long it takes
+     *
+     * @param maxDepth Maximum number of moves in a solution
+     */
+    public Solver(int maxDepth) {
+        this(maxDepth, Long.MAX_VALUE);
+    }
+
+    /**
+     * Create a solver that gives up on solutions longer than a limit, or after looking at too many states
+     *
+     * @param maxDepth Maximum number of moves in a solution
+     * @param maxNodes Maximum number of states to look at
+     */
+    public Solver(int maxDepth, long maxNodes) {
+        if(maxNodes < 1)
+            throw new IllegalArgumentException("Node budget must be positive: " + maxNodes);
+        this.maxDepth = maxDepth;
+        this.maxNodes = maxNodes;
+    }
+
+    /**
+     * Find the shortest solution of a cube, in the normal form of {@link MoveSimplifier}
+     *
+     * @param start    State to solve, left unchanged
+     * @param listener Listener to notify of the progress, or null
+     * @return Moves solving the cube, or null if there is no solution within the maximum depth or node budget.
+     *         The last progress reported says which, and holds the closest state found.
+     * @throws InterruptedException If the solving thread was interrupted
+     */
+    public List<Move> solve(CubeState start, ProgressListener listener) throws InterruptedException {
+        return new Search(start, listener).run();
+    }
+
+    private class Search {
+
+        private final ProgressListener listener;
+        private final CubeLayout layout;
+        private final Move[] moves;
+        private final CubeState[] states;
+        private final Move[] path;
+        private final int[] colorCounts = new int[PlainCubelet.CubeletColor.values().length];
+        private final int perMove;
+        private final long startTime = System.nanoTime();
+        private long nodes;
+        private int depth;
+        private List<Move> best = new ArrayList<Move>();
+        private int bestMismatch;
+        private boolean outOfNodes;
+
+        Search(CubeState start, ProgressListener listener) {
+            this.listener = listener;
+            this.layout = start.getLayout();
+            int size = layout.getSize();
+
+            List<Move> allMoves = new ArrayList<Move>();
+            for(Move.Axis axis : Move.Axis.values()) {
+                for(int slice = 0; slice < size; slice++) {
+                    for(int turns = 1; turns <= 3; turns++) {
+                        allMoves.add(new Move(axis, slice, turns));
+                    }
+                }
+            }
+            this.moves = allMoves.toArray(new Move[allMoves.size()]);
+
+            this.states = new CubeState[maxDepth + 1];
+            for(int i = 0; i < states.length; i++) {
+                states[i] = new CubeState(start);
+            }
+            this.path = new Move[maxDepth];
+            this.perMove = 4 * size;
+            this.bestMismatch = mismatch(start);
+        }
+
+        List<Move> run() throws InterruptedException {
+            for(depth = estimate(bestMismatch); depth <= maxDepth; depth++) {
+                report(false);
+                if(search(0, null)) {
+                    report(true);
+                    return best;
+                }
+                if(outOfNodes)
+                    break;
+            }
+            depth = Math.min(depth, maxDepth);
+            report(true);
+            return null;
+        }
+
+        private boolean search(int g, Move previous) throws InterruptedException {
+            if(nodes >= maxNodes) {
+                outOfNodes = true;
+                return false;
+            }
+            if(++nodes % PROGRESS_INTERVAL == 0) {
+                if(Thread.interrupted())
+                    throw new InterruptedException();
+                report(false);
+            }
+
+            CubeState state = states[g];
+            int mismatch = mismatch(state);
+            if(mismatch < bestMismatch) {
+                bestMismatch = mismatch;
+                best = new ArrayList<Move>(Arrays.asList(path).subList(0, g));
+                report(false);
+            }
+            if(mismatch == 0)
+                return true;
+            if(g + estimate(mismatch) > depth)
+                return false;
+
+            for(Move move : moves) {
+                // Turns around the same axis commute, so only search them in increasing slice order
+                if(previous != null && previous.getAxis() == move.getAxis() && previous.getSlice() >= move.getSlice())
+                    continue;
+                CubeState next = states[g + 1];
+                next.set(state);
+                next.apply(move);
+                path[g] = move;
+                if(search(g + 1, move))
+                    return true;
+                if(outOfNodes)
+                    return false;
+            }
+            return false;
+        }
+
+        private int estimate(int mismatch) {
+            return (mismatch + perMove - 1) / perMove;
+        }
+
+        /**
+         * Count the visible facelets that don't match the most common color of their side
+         */
+        private int mismatch(CubeState state) {
+            byte[] facelets = state.getFacelets();
+            int mismatch = 0;
+            for(CubeletSide side : CubeletSide.values()) {
+                int[] face = layout.getFaceFacelets(side);
+                Arrays.fill(colorCounts, 0);
+                int most = 0;
+                for(int i = 0; i < face.length; i++) {
+                    most = Math.max(most, ++colorCounts[facelets[face[i]]]);
+                }
+                mismatch += face.length - most;
+            }
+            return mismatch;
+        }
+
+        private void report(boolean done) {
+            if(listener == null)
+                return;
+            long elapsed = Math.max(1, System.nanoTime() - startTime);
+            listener.progress(new SolveProgress(depth, nodes, nodes * 1000000000L / elapsed,
+                    best, bestMismatch, outOfNodes, done));
+        }
+    }
+}
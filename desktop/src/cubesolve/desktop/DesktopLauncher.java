@@ -2,8 +2,11 @@ package cubesolve.desktop;
 
 import com.badlogic.gdx.backends.lwjgl.LwjglApplication;
 import com.badlogic.gdx.backends.lwjgl.LwjglApplicationConfiguration;
+import cubesolve.CubeArena;
 import cubesolve.CubeSolve;
 
+import java.io.File;
+
 public class DesktopLauncher {
 	public static void main (String[] arg) {
 		LwjglApplicationConfiguration config = new LwjglApplicationConfiguration();
@@ -14,6 +17,29 @@ public class DesktopLauncher {
 		config.vSyncEnabled = false; // Sync w/ vertical refresh
 		config.useGL30 = true;
 
-		new LwjglApplication(new CubeSolve(), config);
+		CubeSolve game = new CubeSolve();
+		float replayRate = 10;
+		File replayFile = null;
+		int arenaCubes = 0, arenaSize = 3;
+		for(int i = 0; i + 1 < arg.length; i++) {
+			if(arg[i].equals("--arena")) {
+				arenaCubes = Integer.parseInt(arg[++i]);
+			} else if(arg[i].equals("--arena-size")) {
+				arenaSize = Integer.parseInt(arg[++i]);
+			} else if(arg[i].equals("--record")) {
+				game.recordTo(new File(arg[++i]));
+			} else if(arg[i].equals("--replay")) {
+				replayFile = new File(arg[++i]);
+			} else if(arg[i].equals("--replay-rate")) {
+				replayRate = Float.parseFloat(arg[++i]);
+			}
+		}
+		if(replayFile != null)
+			game.replay(replayFile, replayRate);
+
+		if(arenaCubes > 0)
+			new LwjglApplication(new CubeArena(arenaCubes, arenaSize), config);
+		else
+			new LwjglApplication(game, config);
 	}
 }
@@ -0,0 +1,263 @@
+package cubesolve.desktop;
+
+import cubesolve.CubeState;
+import cubesolve.Move;
+import cubesolve.MoveSimplifier;
+import cubesolve.Solver;
+
+import java.io.*;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.*;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Headless generator writing a large, reproducible set of scrambles to a gzip compressed file.
+ *
+ * Scrambles are generated in fixed size chunks, each from its own random stream split off the seed by index,
+ * so the output only depends on the seed and never on the number of threads.
+ * Only a few chunks per thread are held at once and they are written in order, so memory use doesn't grow with the count.
+ *
+ * The file starts with {@link #MAGIC} and {@link #VERSION} as ints, the cube size as an int, the scramble count
+ * and seed as longs, and the solve depth as an int, 0 if scrambles weren't solved.
+ * Each scramble is its move count as an unsigned short followed by the moves packed by {@link Move#toCode()},
+ * then, if solving, the number of moves solving it as a byte, or -1 if it takes more than the solve depth.
+ */
+public class ScrambleCorpus {
+
+    public static final int MAGIC = 0x43554253; // CUBS
+    public static final int VERSION = 1;
+    /** Number of scrambles generated from each random stream */
+    public static final int CHUNK_SIZE = 4096;
+
+    /** Increment of the SplitMix64 generator */
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    private final int size;
+    private final int length;
+    private final int solveDepth;
+
+    public static void main(String[] arg) throws Exception {
+        if(arg.length < 2) {
+            System.err.println("Usage: ScrambleCorpus <output> <count> [--seed S] [--size N] [--length L]"
+                    + " [--threads T] [--solve-depth D]");
+            System.exit(1);
+        }
+        File output = new File(arg[0]);
+        long count = Long.parseLong(arg[1]);
+        long seed = 0;
+        int size = 3, length = 0, solveDepth = 0;
+        int threads = Runtime.getRuntime().availableProcessors();
+        for(int i = 2; i + 1 < arg.length; i++) {
+            if(arg[i].equals("--seed")) {
+                seed = Long.parseLong(arg[++i]);
+            } else if(arg[i].equals("--size")) {
+                size = Integer.parseInt(arg[++i]);
+            } else if(arg[i].equals("--length")) {
+                length = Integer.parseInt(arg[++i]);
+            } else if(arg[i].equals("--threads")) {
+                threads = Integer.parseInt(arg[++i]);
+            } else if(arg[i].equals("--solve-depth")) {
+                solveDepth = Integer.parseInt(arg[++i]);
+            }
+        }
+
+        ScrambleCorpus corpus = new ScrambleCorpus(size, length, solveDepth);
+        long start = System.nanoTime();
+        long[] distances = corpus.write(output, count, seed, threads);
+        long millis = (System.nanoTime() - start) / 1000000;
+        System.out.println("Wrote " + count + " scrambles to " + output + " in " + millis + "ms"
+                + " (" + count * 1000 / Math.max(1, millis) + " scrambles/s)");
+
+        if(solveDepth > 0) {
+            System.out.println("Moves to solve:");
+            for(int distance = 0; distance < distances.length; distance++) {
+                if(distances[distance] == 0)
+                    continue;
+                String label = distance <= solveDepth ? String.valueOf(distance) : ">" + solveDepth;
+                System.out.println(String.format("%5s %12d %7.3f%%", label, distances[distance],
+                        distances[distance] * 100.0 / count));
+            }
+        }
+    }
+
+    /**
+     * Create a generator of scrambles
+     *
+     * @param size       Number of rows in the cube
+     * @param length     Number of random moves in each scramble, or 0 to shuffle the same way {@link cubesolve.Cube} does
+     * @param solveDepth Deepest solution to search for each scramble, or 0 to not solve them
+     */
+    public ScrambleCorpus(int size, int length, int solveDepth) {
+        if(size < 1)
+            throw new IllegalArgumentException("Invalid cube size: " + size);
+        if(length < 0 || length > 0xFFFF)
+            throw new IllegalArgumentException("Invalid scramble length: " + length);
+        if(solveDepth < 0 || solveDepth > Byte.MAX_VALUE)
+            throw new IllegalArgumentException("Invalid solve depth: " + solveDepth);
+        this.size = size;
+        this.length = length;
+        this.solveDepth = solveDepth;
+    }
+
+    /**
+     * Generate scrambles and write them to a file
+     *
+     * @param output  File to write to
+     * @param count   Number of scrambles to generate
+     * @param seed    Seed the scrambles are generated from
+     * @param threads Number of threads to generate with
+     * @return Number of scrambles taking each number of moves to solve, with the ones taking more than the
+     *         solve depth counted last, or an empty array if not solving
+     */
+    public long[] write(File output, long count, long seed, int threads) throws IOException, InterruptedException {
+        if(count < 0)
+            throw new IllegalArgumentException("Invalid scramble count: " + count);
+        if(threads < 1)
+            throw new IllegalArgumentException("Invalid thread count: " + threads);
+        long[] distances = new long[solveDepth > 0 ? solveDepth + 2 : 0];
+        long chunks = (count + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        ExecutorService executor = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "scramble-generator");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                new GZIPOutputStream(new FileOutputStream(output), 1 << 16), 1 << 16));
+        try {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(size);
+            out.writeLong(count);
+            out.writeLong(seed);
+            out.writeInt(solveDepth);
+
+            // Keep a few chunks queued per thread, writing them in order as they finish
+            ArrayDeque<Future<Chunk>> pending = new ArrayDeque<Future<Chunk>>();
+            long next = 0;
+            while(next < chunks || !pending.isEmpty()) {
+                while(next < chunks && pending.size() < threads * 2) {
+                    final long index = next++;
+                    final int chunkCount = (int) Math.min(CHUNK_SIZE, count - index * CHUNK_SIZE);
+                    final long chunkSeed = mix64(seed + (index + 1) * GOLDEN_GAMMA);
+                    pending.add(executor.submit(new Callable<Chunk>() {
+                        @Override
+                        public Chunk call() throws Exception {
+                            return generate(chunkSeed, chunkCount);
+                        }
+                    }));
+                }
+
+                Chunk chunk;
+                try {
+                    chunk = pending.poll().get();
+                } catch(ExecutionException e) {
+                    throw new IOException("Generating scrambles failed", e.getCause());
+                }
+                out.write(chunk.data);
+                for(int i = 0; i < distances.length; i++) {
+                    distances[i] += chunk.distances[i];
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+            out.close();
+        }
+        return distances;
+    }
+
+    /**
+     * Generate and serialize a chunk of scrambles from its own random stream
+     */
+    private Chunk generate(long seed, int count) throws IOException, InterruptedException {
+        Random rng = new SplitMixRandom(seed);
+        Solver solver = solveDepth > 0 ? new Solver(solveDepth) : null;
+        CubeState state = solver != null ? new CubeState(size) : null;
+        Chunk chunk = new Chunk();
+        chunk.distances = new long[solver != null ? solveDepth + 2 : 0];
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(count * (length > 0 ? length * 2 + 3 : 64));
+        DataOutputStream out = new DataOutputStream(bytes);
+        for(int i = 0; i < count; i++) {
+            List<Move> moves = scramble(rng);
+            if(moves.size() > 0xFFFF)
+                throw new IOException("Scramble too long to store: " + moves.size() + " moves");
+            out.writeShort(moves.size());
+            for(int m = 0; m < moves.size(); m++) {
+                out.writeShort(moves.get(m).toCode());
+            }
+
+            if(solver != null) {
+                state.reset();
+                state.apply(moves);
+                List<Move> solution = solver.solve(state, null);
+                int distance = solution != null ? solution.size() : -1;
+                out.writeByte(distance);
+                chunk.distances[distance >= 0 ? distance : solveDepth + 1]++;
+            }
+        }
+        chunk.data = bytes.toByteArray();
+        return chunk;
+    }
+
+    private List<Move> scramble(Random rng) {
+        if(length == 0)
+            return MoveSimplifier.simplify(Move.shuffleSequence(size, rng)).getMoves();
+
+        // Random moves, never turning the same slice twice in a row
+        Move.Axis[] axes = Move.Axis.values();
+        List<Move> moves = new ArrayList<Move>(length);
+        Move previous = null;
+        while(moves.size() < length) {
+            Move move = new Move(axes[rng.nextInt(axes.length)], rng.nextInt(size), 1 + rng.nextInt(3));
+            if(previous != null && previous.getAxis() == move.getAxis() && previous.getSlice() == move.getSlice())
+                continue;
+            moves.add(move);
+            previous = move;
+        }
+        return moves;
+    }
+
+    /**
+     * SplitMix64 finalizer, turning consecutive seeds into unrelated ones
+     */
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Serialized scrambles of a chunk along with how many moves they take to solve
+     */
+    private static class Chunk {
+        private byte[] data;
+        private long[] distances;
+    }
+
+    /**
+     * The SplitMix64 generator behind {@code java.util.SplittableRandom}, usable wherever a {@link Random} is
+     */
+    private static class SplitMixRandom extends Random {
+
+        private static final long serialVersionUID = 1L;
+
+        private long state;
+
+        SplitMixRandom(long seed) {
+            super(0);
+            this.state = seed;
+        }
+
+        @Override
+        protected int next(int bits) {
+            state += GOLDEN_GAMMA;
+            return (int) (mix64(state) >>> (64 - bits));
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package cubesolve.desktop;
+
+import cubesolve.CubeState;
+import cubesolve.Move;
+
+import java.io.*;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Headless load generator for {@link SolveServer}, measuring throughput and latency percentiles.
+ *
+ * Every client thread sends its share of the requests one after the other, so the number of clients is the
+ * number of requests in flight. Requests cycle through /apply, /solved and /scramble on a shuffled 3x3 cube,
+ * or only go to the endpoint given with --endpoint. With --embedded a server is started in the same process.
+ */
+public class SolveLoadGenerator {
+
+    private static final String[] ENDPOINTS = {"apply", "solved", "scramble"};
+
+    private final String baseUrl;
+    private final String[] endpoints;
+    private final byte[] stateBody;
+    private final byte[] applyBody;
+    private final AtomicInteger errors = new AtomicInteger();
+    private final AtomicLong firstError = new AtomicLong(-1);
+
+    public static void main(String[] arg) throws Exception {
+        int port = SolveServer.DEFAULT_PORT;
+        int clients = 256, requests = 100000, warmup = 10000;
+        String endpoint = null;
+        boolean embedded = false;
+        for(int i = 0; i < arg.length; i++) {
+            if(arg[i].equals("--embedded")) {
+                embedded = true;
+            } else if(i + 1 < arg.length) {
+                if(arg[i].equals("--port")) {
+                    port = Integer.parseInt(arg[++i]);
+                } else if(arg[i].equals("--clients")) {
+                    clients = Integer.parseInt(arg[++i]);
+                } else if(arg[i].equals("--requests")) {
+                    requests = Integer.parseInt(arg[++i]);
+                } else if(arg[i].equals("--warmup")) {
+                    warmup = Integer.parseInt(arg[++i]);
+                } else if(arg[i].equals("--endpoint")) {
+                    endpoint = arg[++i];
+                }
+            }
+        }
+        if(clients < 1 || requests < 1 || warmup < 0)
+            throw new IllegalArgumentException("Clients and requests must be positive");
+        if(endpoint != null && !Arrays.asList(ENDPOINTS).contains(endpoint))
+            throw new IllegalArgumentException("Unknown endpoint: " + endpoint);
+
+        // Keep a connection open per client instead of the default 5, or most requests would reconnect
+        if(System.getProperty("http.maxConnections") == null)
+            System.setProperty("http.maxConnections", String.valueOf(clients));
+
+        SolveServer server = null;
+        if(embedded) {
+            server = new SolveServer(port);
+            server.start();
+        }
+        try {
+            SolveLoadGenerator generator = new SolveLoadGenerator(port, endpoint);
+            if(warmup > 0)
+                generator.run(Math.min(clients, warmup), warmup);
+            generator.report(clients, generator.run(clients, requests));
+        } finally {
+            if(server != null)
+                server.stop();
+        }
+    }
+
+    /**
+     * Create a load generator for a server on this host
+     *
+     * @param port     Port the server listens on
+     * @param endpoint Only endpoint to send requests to, or null to cycle through all of the cheap ones
+     */
+    public SolveLoadGenerator(int port, String endpoint) throws IOException {
+        this.baseUrl = "http://127.0.0.1:" + port + "/";
+        this.endpoints = endpoint != null ? new String[] {endpoint} : ENDPOINTS;
+
+        CubeState state = new CubeState(3);
+        state.shuffle(new Random(0));
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeShort(state.getSize());
+        out.write(state.getFacelets());
+        this.stateBody = bytes.toByteArray();
+
+        List<Move> moves = Move.shuffleSequence(3, new Random(1)).subList(0, 20);
+        for(Move move : moves) {
+            out.writeShort(move.toCode());
+        }
+        this.applyBody = bytes.toByteArray();
+    }
+
+    /**
+     * Send requests from many clients at once
+     *
+     * @param clients  Number of clients sending requests
+     * @param requests Total number of requests to send
+     * @return Latency of every request in nanoseconds, sorted, and the total time taken as the last element
+     */
+    public long[] run(int clients, final int requests) throws InterruptedException {
+        final long[] latencies = new long[requests + 1];
+        final AtomicInteger next = new AtomicInteger();
+        final CountDownLatch start = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(clients);
+        errors.set(0);
+        firstError.set(-1);
+        for(int c = 0; c < clients; c++) {
+            Thread thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                        int i;
+                        while((i = next.getAndIncrement()) < requests) {
+                            long begin = System.nanoTime();
+                            send(i);
+                            latencies[i] = System.nanoTime() - begin;
+                        }
+                    } catch(InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        done.countDown();
+                    }
+                }
+            }, "load-client-" + c);
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        done.await();
+        latencies[requests] = System.nanoTime() - begin;
+        Arrays.sort(latencies, 0, requests);
+        return latencies;
+    }
+
+    private void send(int i) {
+        String endpoint = endpoints[i % endpoints.length];
+        HttpURLConnection connection = null;
+        try {
+            if(endpoint.equals("scramble")) {
+                connection = (HttpURLConnection) new URL(baseUrl + "scramble?size=3&seed=" + i).openConnection();
+            } else {
+                connection = (HttpURLConnection) new URL(baseUrl + endpoint).openConnection();
+                connection.setRequestMethod("POST");
+                connection.setDoOutput(true);
+                byte[] body = endpoint.equals("apply") ? applyBody : stateBody;
+                connection.setFixedLengthStreamingMode(body.length);
+                OutputStream out = connection.getOutputStream();
+                out.write(body);
+                out.close();
+            }
+
+            int status = connection.getResponseCode();
+            InputStream in = status == 200 ? connection.getInputStream() : connection.getErrorStream();
+            if(in != null) {
+                byte[] buffer = new byte[512];
+                while(in.read(buffer) >= 0) {
+                    // Read the whole response so the connection can be reused
+                }
+                in.close();
+            }
+            if(status != 200)
+                error(status);
+        } catch(IOException e) {
+            error(0);
+        }
+    }
+
+    private void error(int status) {
+        errors.incrementAndGet();
+        firstError.compareAndSet(-1, status);
+    }
+
+    private void report(int clients, long[] latencies) {
+        int requests = latencies.length - 1;
+        double seconds = latencies[requests] / 1e9;
+        System.out.println(requests + " requests from " + clients + " clients in "
+                + String.format("%.2f", seconds) + "s, " + errors.get() + " failed"
+                + (errors.get() > 0 ? " (first status " + firstError.get() + ", 0 for I/O errors)" : ""));
+        System.out.println(String.format("Throughput: %.0f requests/s", requests / seconds));
+        System.out.println(String.format("Latency: p50 %.3fms, p99 %.3fms, p999 %.3fms, max %.3fms",
+                percentile(latencies, requests, 0.5), percentile(latencies, requests, 0.99),
+                percentile(latencies, requests, 0.999), latencies[requests - 1] / 1e6));
+    }
+
+    private static double percentile(long[] sorted, int count, double fraction) {
+        int index = (int) Math.ceil(fraction * count) - 1;
+        return sorted[Math.max(0, Math.min(count - 1, index))] / 1e6;
+    }
+}
@@ -0,0 +1,342 @@
+package cubesolve.desktop;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import cubesolve.CubeState;
+import cubesolve.Move;
+import cubesolve.PlainCubelet;
+import cubesolve.Solver;
+
+import java.io.*;
+import java.lang.reflect.Method;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.*;
+
+/**
+ * Headless HTTP service for other programs on the same host to turn, check and solve cube states.
+ *
+ * A state body is the cube size as an unsigned short followed by the packed state (see {@link cubesolve.CubeLayout}),
+ * and moves are unsigned shorts packed by {@link Move#toCode()}.
+ * <ul>
+ *     <li>POST /apply - state followed by moves, responds with the state after the moves</li>
+ *     <li>POST /solved - state, responds with a single byte, 1 if solved</li>
+ *     <li>GET /scramble?size=N&amp;seed=S&amp;moves=M - responds with a cube turned M random moves from the seed,
+ *     or shuffled the same way the game does if M isn't given</li>
+ *     <li>POST /solve?depth=D - state, responds with the solving moves, 422 if there are none within the depth,
+ *     or 503 if no solution was found within {@link #SOLVE_TIMEOUT_MILLIS}</li>
+ * </ul>
+ * The solver only reaches states a few moves from solved, see {@link Solver}. The default depth of 7 is searched
+ * in full within a couple of seconds on 2x2 and 3x3 cubes, and the timeout allows about 8. A cube shuffled by
+ * /scramble without moves is far beyond that, and gets 422 at the default depth or 503 at larger ones,
+ * so scrambles meant to be solved should use /scramble with a small number of moves.
+ * Malformed requests get 400, and errors in the engine get 500, both with a text body saying why.
+ * Every request gets its own virtual thread when running on Java 21 or later.
+ * Solves run on a pool the size of the number of cores, so they don't starve the other requests.
+ */
+public class SolveServer {
+
+    public static final int DEFAULT_PORT = 8317;
+    /** Largest cube size accepted, about the largest the game can render */
+    public static final int MAX_SIZE = 36;
+    public static final int DEFAULT_SOLVE_DEPTH = 7;
+    public static final int MAX_SOLVE_DEPTH = 20;
+    public static final long SOLVE_TIMEOUT_MILLIS = 10000;
+    public static final int MAX_SCRAMBLE_MOVES = 10000;
+
+    private static final int COLOR_COUNT = PlainCubelet.CubeletColor.values().length;
+
+    static {
+        // Responses are tiny, so don't let Nagle's algorithm hold them back waiting for more data
+        if(System.getProperty("sun.net.httpserver.nodelay") == null)
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+
+    private final HttpServer server;
+    private final ExecutorService requestExecutor;
+    private final ExecutorService solveExecutor;
+
+    public static void main(String[] arg) throws IOException {
+        int port = arg.length > 0 ? Integer.parseInt(arg[0]) : DEFAULT_PORT;
+        SolveServer server = new SolveServer(port);
+        server.start();
+        System.out.println("Cube service listening on 127.0.0.1:" + port);
+    }
+
+    /**
+     * Create a server listening on the loopback interface
+     *
+     * @param port Port to listen on
+     */
+    public SolveServer(int port) throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getByName("127.0.0.1"), port), 4096);
+        requestExecutor = createRequestExecutor();
+        solveExecutor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "cube-service-solver");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+
+        server.setExecutor(requestExecutor);
+        server.createContext("/apply", new Endpoint("POST") {
+            @Override
+            byte[] handle(HttpExchange exchange, DataInputStream body) throws IOException {
+                CubeState state = readState(body);
+                List<Move> moves = readMoves(body, state.getSize());
+                state.apply(moves);
+                return writeState(state);
+            }
+        });
+        server.createContext("/solved", new Endpoint("POST") {
+            @Override
+            byte[] handle(HttpExchange exchange, DataInputStream body) throws IOException {
+                return new byte[] {(byte) (readState(body).isSolved() ? 1 : 0)};
+            }
+        });
+        server.createContext("/scramble", new Endpoint("GET") {
+            @Override
+            byte[] handle(HttpExchange exchange, DataInputStream body) throws IOException {
+                URI uri = exchange.getRequestURI();
+                int size = (int) getParameter(uri, "size", 3);
+                if(size < 1 || size > MAX_SIZE)
+                    throw new BadRequestException("Invalid cube size: " + size);
+                int moves = (int) getParameter(uri, "moves", -1);
+                if(moves < -1 || moves > MAX_SCRAMBLE_MOVES)
+                    throw new BadRequestException("Invalid move count: " + moves);
+                CubeState state = new CubeState(size);
+                Random rng = new Random(getParameter(uri, "seed", System.nanoTime()));
+                if(moves < 0) {
+                    state.shuffle(rng);
+                } else {
+                    Move.Axis[] axes = Move.Axis.values();
+                    for(int i = 0; i < moves; i++) {
+                        state.apply(new Move(axes[rng.nextInt(axes.length)], rng.nextInt(size), 1 + rng.nextInt(3)));
+                    }
+                }
+                return writeState(state);
+            }
+        });
+        server.createContext("/solve", new Endpoint("POST") {
+            @Override
+            byte[] handle(HttpExchange exchange, DataInputStream body) throws IOException {
+                int depth = (int) getParameter(exchange.getRequestURI(), "depth", DEFAULT_SOLVE_DEPTH);
+                if(depth < 0 || depth > MAX_SOLVE_DEPTH)
+                    throw new BadRequestException("Invalid solve depth: " + depth);
+                List<Move> solution = solve(readState(body), depth);
+                if(solution == null)
+                    return null;
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream(solution.size() * 2);
+                DataOutputStream out = new DataOutputStream(bytes);
+                for(Move move : solution) {
+                    out.writeShort(move.toCode());
+                }
+                return bytes.toByteArray();
+            }
+        });
+    }
+
+    /**
+     * Start accepting requests
+     */
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * Stop accepting requests, waiting up to a second for the ones in progress
+     */
+    public void stop() {
+        server.stop(1);
+        requestExecutor.shutdownNow();
+        solveExecutor.shutdownNow();
+    }
+
+    private List<Move> solve(final CubeState state, final int depth) throws IOException {
+        Future<List<Move>> future = solveExecutor.submit(new Callable<List<Move>>() {
+            @Override
+            public List<Move> call() throws Exception {
+                return new Solver(depth).solve(state, null);
+            }
+        });
+        try {
+            return future.get(SOLVE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        } catch(TimeoutException e) {
+            future.cancel(true);
+            throw new SolveTimeoutException("No solution found within " + SOLVE_TIMEOUT_MILLIS + "ms");
+        } catch(InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while solving");
+        } catch(ExecutionException e) {
+            throw new IOException("Solver failed", e.getCause());
+        }
+    }
+
+    /**
+     * Create an executor running every request on a new virtual thread,
+     * or on a cached thread pool on Java versions without virtual threads
+     */
+    private static ExecutorService createRequestExecutor() {
+        try {
+            Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) method.invoke(null);
+        } catch(Exception e) {
+            return Executors.newCachedThreadPool();
+        }
+    }
+
+    private static CubeState readState(DataInputStream in) throws IOException {
+        int size = in.readUnsignedShort();
+        if(size < 1 || size > MAX_SIZE)
+            throw new BadRequestException("Invalid cube size: " + size);
+        CubeState state = new CubeState(size);
+        byte[] facelets = state.getFacelets();
+        in.readFully(facelets);
+        for(byte color : facelets) {
+            if(color < 0 || color >= COLOR_COUNT)
+                throw new BadRequestException("Invalid color: " + color);
+        }
+        return state;
+    }
+
+    private static List<Move> readMoves(DataInputStream in, int size) throws IOException {
+        List<Move> moves = new ArrayList<Move>();
+        int high;
+        while((high = in.read()) >= 0) {
+            int low = in.read();
+            if(low < 0)
+                throw new BadRequestException("Truncated move");
+            Move move;
+            try {
+                move = Move.fromCode(high << 8 | low);
+            } catch(IllegalArgumentException e) {
+                throw new BadRequestException(e.getMessage());
+            }
+            if(move.getSlice() >= size)
+                throw new BadRequestException("Slice out of range: " + move.getSlice());
+            moves.add(move);
+        }
+        return moves;
+    }
+
+    private static byte[] writeState(CubeState state) {
+        byte[] facelets = state.getFacelets();
+        byte[] body = new byte[2 + facelets.length];
+        body[0] = (byte) (state.getSize() >>> 8);
+        body[1] = (byte) state.getSize();
+        System.arraycopy(facelets, 0, body, 2, facelets.length);
+        return body;
+    }
+
+    private static long getParameter(URI uri, String name, long defaultValue) throws BadRequestException {
+        String query = uri.getRawQuery();
+        if(query == null)
+            return defaultValue;
+        for(String pair : query.split("&")) {
+            int equals = pair.indexOf('=');
+            if(equals > 0 && pair.substring(0, equals).equals(name)) {
+                try {
+                    return Long.parseLong(pair.substring(equals + 1));
+                } catch(NumberFormatException e) {
+                    throw new BadRequestException("Invalid " + name + ": " + pair.substring(equals + 1));
+                }
+            }
+        }
+        return defaultValue;
+    }
+
+    /**
+     * Thrown when a request body or parameter is malformed
+     */
+    private static class BadRequestException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        BadRequestException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * Thrown when a solve takes longer than {@link #SOLVE_TIMEOUT_MILLIS}
+     */
+    private static class SolveTimeoutException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        SolveTimeoutException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * Handler reading the whole request body and writing a binary response
+     */
+    private static abstract class Endpoint implements HttpHandler {
+
+        private final String method;
+
+        Endpoint(String method) {
+            this.method = method;
+        }
+
+        /**
+         * @return Response body, or null if there is no result
+         */
+        abstract byte[] handle(HttpExchange exchange, DataInputStream body) throws IOException;
+
+        @Override
+        public void handle(HttpExchange exchange) throws IOException {
+            try {
+                if(!exchange.getRequestMethod().equals(method)) {
+                    respond(exchange, 405, new byte[0]);
+                    return;
+                }
+
+                byte[] response;
+                try {
+                    DataInputStream body = new DataInputStream(new BufferedInputStream(exchange.getRequestBody()));
+                    response = handle(exchange, body);
+                } catch(BadRequestException e) {
+                    respond(exchange, 400, e.getMessage().getBytes("UTF-8"));
+                    return;
+                } catch(EOFException e) {
+                    respond(exchange, 400, "Truncated body".getBytes("UTF-8"));
+                    return;
+                } catch(SolveTimeoutException e) {
+                    respond(exchange, 503, e.getMessage().getBytes("UTF-8"));
+                    return;
+                } catch(IOException e) {
+                    respond(exchange, 500, String.valueOf(e).getBytes("UTF-8"));
+                    return;
+                } catch(RuntimeException e) {
+                    respond(exchange, 500, String.valueOf(e).getBytes("UTF-8"));
+                    return;
+                }
+
+                if(response == null)
+                    respond(exchange, 422, new byte[0]);
+                else
+                    respond(exchange, 200, response);
+            } finally {
+                exchange.close();
+            }
+        }
+
+        private static void respond(HttpExchange exchange, int status, byte[] body) throws IOException {
+            exchange.getResponseHeaders().set("Content-Type", status == 200 ? "application/octet-stream" : "text/plain");
+            exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+            if(body.length > 0) {
+                OutputStream out = exchange.getResponseBody();
+                out.write(body);
+                out.close();
+            }
+        }
+    }
+}